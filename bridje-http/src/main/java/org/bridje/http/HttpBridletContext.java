@@ -16,6 +16,9 @@
 
 package org.bridje.http;
 
+import org.bridje.ioc.thls.Deadline;
+import org.bridje.ioc.thls.Thls;
+
 /**
  * Represents a context used in a HTTP request by the server handlers. This
  * interface allows to set and get data that is specific to the request being
@@ -58,4 +61,18 @@ public interface HttpBridletContext
      * @return The HTTP response.
      */
     HttpBridletResponse getResponse();
+
+    /**
+     * The deadline for this request, once it expires the response will not be
+     * sent to the client so handlers should stop working on it. The deadline
+     * is also available in the thread local storage while the request is
+     * handled.
+     *
+     * @return The deadline for this request, or null if the request has no
+     *         timeout.
+     */
+    default Deadline getDeadline()
+    {
+        return Thls.get(Deadline.class);
+    }
 }
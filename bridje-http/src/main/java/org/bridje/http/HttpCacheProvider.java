@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.http;
+
+/**
+ * Provides the time to live for the responses that the HTTP server may keep in
+ * its in-memory micro cache. Components implementing this interface decide
+ * which paths are safe to be served from the cache, only anonymous GET requests
+ * are ever cached.
+ */
+public interface HttpCacheProvider
+{
+    /**
+     * Gets the time in seconds that the response for the given path can be
+     * served from the cache.
+     *
+     * @param path The requested path.
+     *
+     * @return The time to live in seconds for the response, or null if this
+     *         provider does not know the given path.
+     */
+    Integer ttlForPath(String path);
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.http;
+
+/**
+ * Validates the requests that send the "Expect: 100-continue" header before
+ * the client uploads the body. Components implementing this interface can
+ * refuse the request (for example if the user is not authenticated or the path
+ * does not exists) so the client does not send a body that will be discarded.
+ * The validation is done in the network thread of the server with only the
+ * headers of the request available, so it must be fast and non blocking.
+ */
+public interface HttpContinueValidator
+{
+    /**
+     * Validates the headers of the request, the body of the request is not
+     * available yet.
+     *
+     * @param request The HTTP request.
+     *
+     * @throws HttpException If the request must be refused, the status of the
+     *                       exception will be sent to the client instead of
+     *                       the "100 Continue" response.
+     */
+    void validate(HttpBridletRequest request) throws HttpException;
+}
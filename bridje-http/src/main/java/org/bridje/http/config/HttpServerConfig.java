@@ -20,10 +20,14 @@ import java.io.*;
 import java.net.InetSocketAddress;
 import java.security.*;
 import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.List;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
 import org.bridje.vfs.VFile;
 import org.bridje.vfs.VFileInputStream;
@@ -54,6 +58,18 @@ public class HttpServerConfig
 
     private int requestTimeout = 60;
 
+    private int maxContentLength;
+
+    private int cacheMaxSize;
+
+    private String cacheHeaders;
+
+    private String rateLimitHeader;
+
+    private int rateLimitProxies;
+
+    private List<RateLimitConfig> rateLimits;
+
     /**
      * The listen IP on witch to start the HTTP server, can be null witch means
      * all IPs will be allowed. Specify this only if you plan to restrict the
@@ -268,6 +284,169 @@ public class HttpServerConfig
         this.requestTimeout = requestTimeout;
     }
 
+    /**
+     * The maximum size in kilobytes of the body that a client can declare in
+     * the Content-Length header of a request with "Expect: 100-continue",
+     * larger requests are refused before the body is sent. 0 or less means
+     * no limit, witch is the default.
+     *
+     * @return The maximum content length in kilobytes.
+     */
+    public int getMaxContentLength()
+    {
+        return maxContentLength;
+    }
+
+    /**
+     * The maximum size in kilobytes of the body that a client can declare in
+     * the Content-Length header of a request with "Expect: 100-continue",
+     * larger requests are refused before the body is sent. 0 or less means
+     * no limit, witch is the default.
+     *
+     * @param maxContentLength The maximum content length in kilobytes.
+     */
+    public void setMaxContentLength(int maxContentLength)
+    {
+        this.maxContentLength = maxContentLength;
+    }
+
+    /**
+     * The maximum amount of memory in kilobytes that the micro cache can use to
+     * keep the responses, by default 16384 (16 MB).
+     *
+     * @return The maximum size of the micro cache in kilobytes.
+     */
+    public int getCacheMaxSize()
+    {
+        if (cacheMaxSize <= 0)
+        {
+            cacheMaxSize = 16384;
+        }
+        return cacheMaxSize;
+    }
+
+    /**
+     * The maximum amount of memory in kilobytes that the micro cache can use to
+     * keep the responses, by default 16384 (16 MB).
+     *
+     * @param cacheMaxSize The maximum size of the micro cache in kilobytes.
+     */
+    public void setCacheMaxSize(int cacheMaxSize)
+    {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    /**
+     * A comma separated list of the request headers that are part of the key
+     * of the responses in the micro cache, by default "Host, Accept,
+     * Accept-Language". Requests with cookies are only cached if the "Cookie"
+     * header is in this list.
+     *
+     * @return The list of headers used for the micro cache keys.
+     */
+    public String getCacheHeaders()
+    {
+        if (cacheHeaders == null)
+        {
+            cacheHeaders = "Host, Accept, Accept-Language";
+        }
+        return cacheHeaders;
+    }
+
+    /**
+     * A comma separated list of the request headers that are part of the key
+     * of the responses in the micro cache, by default "Host, Accept,
+     * Accept-Language". Requests with cookies are only cached if the "Cookie"
+     * header is in this list.
+     *
+     * @param cacheHeaders The list of headers used for the micro cache keys.
+     */
+    public void setCacheHeaders(String cacheHeaders)
+    {
+        this.cacheHeaders = cacheHeaders;
+    }
+
+    /**
+     * The request header that identifies the client for the rate limits, for
+     * example "X-Forwarded-For" when the server is behind a proxy. If null the
+     * remote address of the connection is used.
+     *
+     * @return The name of the header that identifies the client.
+     */
+    public String getRateLimitHeader()
+    {
+        return rateLimitHeader;
+    }
+
+    /**
+     * The request header that identifies the client for the rate limits, for
+     * example "X-Forwarded-For" when the server is behind a proxy. If null the
+     * remote address of the connection is used.
+     *
+     * @param rateLimitHeader The name of the header that identifies the
+     *                        client.
+     */
+    public void setRateLimitHeader(String rateLimitHeader)
+    {
+        this.rateLimitHeader = rateLimitHeader;
+    }
+
+    /**
+     * The number of trusted proxies in front of the server that append the
+     * address of the client to the rate limit header, 1 by default. The client
+     * is taken counting this number of entries from the right of the header,
+     * the entries at the left are sent by the client and cannot be trusted.
+     *
+     * @return The number of trusted proxies.
+     */
+    public int getRateLimitProxies()
+    {
+        if (rateLimitProxies <= 0)
+        {
+            return 1;
+        }
+        return rateLimitProxies;
+    }
+
+    /**
+     * The number of trusted proxies in front of the server that append the
+     * address of the client to the rate limit header, 1 by default. The client
+     * is taken counting this number of entries from the right of the header,
+     * the entries at the left are sent by the client and cannot be trusted.
+     *
+     * @param rateLimitProxies The number of trusted proxies.
+     */
+    public void setRateLimitProxies(int rateLimitProxies)
+    {
+        this.rateLimitProxies = rateLimitProxies;
+    }
+
+    /**
+     * The rate limits applied to each client by path prefix.
+     *
+     * @return The list of rate limits for the server.
+     */
+    @XmlElementWrapper(name = "rateLimits")
+    @XmlElement(name = "rateLimit")
+    public List<RateLimitConfig> getRateLimits()
+    {
+        if (rateLimits == null)
+        {
+            rateLimits = new ArrayList<>();
+        }
+        return rateLimits;
+    }
+
+    /**
+     * The rate limits applied to each client by path prefix.
+     *
+     * @param rateLimits The list of rate limits for the server.
+     */
+    public void setRateLimits(List<RateLimitConfig> rateLimits)
+    {
+        this.rateLimits = rateLimits;
+    }
+
     /**
      * Creates the InetSocketAddress to be user by the server.
      *
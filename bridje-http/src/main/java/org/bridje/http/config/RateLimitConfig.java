@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.http.config;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+
+/**
+ * The rate limit that the HTTP server applies to each client for the requests
+ * whose path starts with a given prefix.
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+public class RateLimitConfig
+{
+    private String path;
+
+    private double rate;
+
+    private int burst;
+
+    /**
+     * The path prefix this limit applies to, when more than one limit matches
+     * a request the one with the longest prefix is used.
+     *
+     * @return The path prefix for this limit.
+     */
+    public String getPath()
+    {
+        if (path == null)
+        {
+            path = "/";
+        }
+        return path;
+    }
+
+    /**
+     * The path prefix this limit applies to, when more than one limit matches
+     * a request the one with the longest prefix is used.
+     *
+     * @param path The path prefix for this limit.
+     */
+    public void setPath(String path)
+    {
+        this.path = path;
+    }
+
+    /**
+     * The number of requests per second that a client can sustain, by default
+     * 10.
+     *
+     * @return The requests per second allowed for each client.
+     */
+    public double getRate()
+    {
+        if (rate <= 0)
+        {
+            rate = 10;
+        }
+        return rate;
+    }
+
+    /**
+     * The number of requests per second that a client can sustain, by default
+     * 10.
+     *
+     * @param rate The requests per second allowed for each client.
+     */
+    public void setRate(double rate)
+    {
+        this.rate = rate;
+    }
+
+    /**
+     * The number of requests a client can make at once before being limited
+     * to the rate, by default the same as the rate.
+     *
+     * @return The burst size allowed for each client.
+     */
+    public int getBurst()
+    {
+        if (burst <= 0)
+        {
+            return (int)Math.max(1, Math.ceil(getRate()));
+        }
+        return burst;
+    }
+
+    /**
+     * The number of requests a client can make at once before being limited
+     * to the rate, by default the same as the rate.
+     *
+     * @param burst The burst size allowed for each client.
+     */
+    public void setBurst(int burst)
+    {
+        this.burst = burst;
+    }
+}
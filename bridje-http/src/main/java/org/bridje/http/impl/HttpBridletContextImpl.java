@@ -21,6 +21,7 @@ import java.util.Map;
 import org.bridje.http.HttpBridletContext;
 import org.bridje.http.HttpBridletRequest;
 import org.bridje.http.HttpBridletResponse;
+import org.bridje.ioc.thls.Deadline;
 
 /**
  *
@@ -32,6 +33,8 @@ class HttpBridletContextImpl implements HttpBridletContext
     private HttpBridletRequest request;
     
     private HttpBridletResponse response;
+
+    private Deadline deadline;
     
     public HttpBridletContextImpl()
     {
@@ -69,5 +72,16 @@ class HttpBridletContextImpl implements HttpBridletContext
         }
         return response;
     }
+
+    @Override
+    public Deadline getDeadline()
+    {
+        return deadline;
+    }
+
+    public void setDeadline(Deadline deadline)
+    {
+        this.deadline = deadline;
+    }
     
 }
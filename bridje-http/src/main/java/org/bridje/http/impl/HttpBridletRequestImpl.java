@@ -17,8 +17,8 @@
 package org.bridje.http.impl;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.ByteBufInputStream;
-import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
@@ -97,18 +97,15 @@ class HttpBridletRequestImpl implements HttpBridletRequest
         return buffer;
     }
 
-    protected void setContent(ByteBuf content)
+    protected void setContent(ByteBuf content, ByteBufAllocator alloc)
     {
         if(content.isReadable())
         {
-            if(this.buffer != null)
+            if(this.buffer == null)
             {
-                this.buffer = Unpooled.copiedBuffer(this.buffer, content);
-            }
-            else
-            {
-                this.buffer = Unpooled.copiedBuffer(content);
+                this.buffer = alloc.buffer(content.readableBytes());
             }
+            this.buffer.writeBytes(content, content.readerIndex(), content.readableBytes());
         }
     }
 
@@ -44,7 +44,6 @@ class HttpBridletResponseImpl implements HttpBridletResponse
     public HttpBridletResponseImpl(ByteBuf buffer)
     {
         this.buffer = buffer;
-        this.buffer.retain();
         out = new ByteBufOutputStream(buffer);
         this.headers = new LinkedHashMap<>();
     }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.http.impl;
+
+import io.netty.buffer.ByteBuf;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.bridje.http.HttpBridletResponse;
+
+/**
+ * A complete response kept by the micro cache, it holds a copy of the body so
+ * it does not depend on the buffer of the request that produced it.
+ */
+class HttpCachedResponse
+{
+    private final String key;
+
+    private final int statusCode;
+
+    private final String contentType;
+
+    private final Map<String, Object> headers;
+
+    private final byte[] body;
+
+    private final long expiresAt;
+
+    public HttpCachedResponse(String key, HttpBridletResponseImpl resp, long expiresAt)
+    {
+        this.key = key;
+        this.statusCode = resp.getStatusCode();
+        this.contentType = resp.getContentType();
+        this.headers = new LinkedHashMap<>(resp.getHeadersMap());
+        ByteBuf buffer = resp.getBuffer();
+        this.body = new byte[buffer.readableBytes()];
+        buffer.getBytes(buffer.readerIndex(), body);
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Determines if this response can still be served at the given time.
+     *
+     * @param now The current time as given by System.nanoTime.
+     *
+     * @return true the response has not expired, false otherwise.
+     */
+    public boolean isFresh(long now)
+    {
+        return now - expiresAt < 0;
+    }
+
+    public String getKey()
+    {
+        return key;
+    }
+
+    /**
+     * The aproximated amount of memory in bytes used by this response.
+     *
+     * @return The size of the response.
+     */
+    public int getSize()
+    {
+        return body.length + 2 * key.length() + 64 * (headers.size() + 1);
+    }
+
+    /**
+     * Writes this response to the given HTTP response.
+     *
+     * @param resp The response to write to.
+     *
+     * @throws IOException If the body cannot be written.
+     */
+    public void writeTo(HttpBridletResponse resp) throws IOException
+    {
+        resp.setStatusCode(statusCode);
+        resp.setContentType(contentType);
+        headers.forEach(resp::setHeader);
+        resp.getOutputStream().write(body);
+    }
+}
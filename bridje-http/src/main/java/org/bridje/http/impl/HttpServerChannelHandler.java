@@ -16,6 +16,7 @@
 
 package org.bridje.http.impl;
 
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.DecoderException;
@@ -35,16 +36,16 @@ import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import org.bridje.http.HttpBridletContext;
 import org.bridje.http.HttpBridletRequest;
 import org.bridje.http.HttpBridletResponse;
-import org.bridje.ioc.Ioc;
+import org.bridje.http.HttpContinueValidator;
+import org.bridje.http.HttpException;
 
 class HttpServerChannelHandler extends SimpleChannelInboundHandler<HttpObject>
 {
     private static final Logger LOG = Logger.getLogger(HttpServerChannelHandler.class.getName());
 
-    private HttpBridletContext context;
+    private HttpBridletContextImpl context;
 
     private HttpBridletRequestImpl req;
 
@@ -54,6 +55,8 @@ class HttpServerChannelHandler extends SimpleChannelInboundHandler<HttpObject>
 
     private HttpPostRequestDecoder decoder;
 
+    private boolean discarding;
+
     private static final HttpDataFactory FACTORY = new DefaultHttpDataFactory(DefaultHttpDataFactory.MINSIZE); // Disk if size exceed
 
     static
@@ -75,6 +78,12 @@ class HttpServerChannelHandler extends SimpleChannelInboundHandler<HttpObject>
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) throws IOException
     {
+        if(discarding)
+        {
+            //a request was rejected before reading its body, everything the
+            //client sends is dropped until the connection is closed.
+            return;
+        }
         if(!msg.decoderResult().isSuccess())
         {
             LOG.log(Level.WARNING, "Decode result was not success.");
@@ -84,12 +93,11 @@ class HttpServerChannelHandler extends SimpleChannelInboundHandler<HttpObject>
         if(msg instanceof HttpRequest)
         {
             HttpRequest httpReq = (HttpRequest)msg;
-            if(HttpUtil.is100ContinueExpected(httpReq))
+            readHeaders(ctx, httpReq);
+            if(req != null && HttpUtil.is100ContinueExpected(httpReq))
             {
-                ctx.write(new DefaultFullHttpResponse(HTTP_1_1, CONTINUE));
-                ctx.flush();
+                expectContinue(ctx, httpReq);
             }
-            readHeaders(ctx, httpReq);
         }
         else if(msg instanceof HttpContent)
         {
@@ -139,6 +147,9 @@ class HttpServerChannelHandler extends SimpleChannelInboundHandler<HttpObject>
         writeCookies(response);
         ctx.write(response);
         ctx.flush();
+        //the buffer of the response now belongs to netty, it is released
+        //after the write, so it is not released again by closeAll.
+        resp = null;
         closeAll();
     }
 
@@ -155,6 +166,45 @@ class HttpServerChannelHandler extends SimpleChannelInboundHandler<HttpObject>
         closeAll();
     }
 
+    private void expectContinue(ChannelHandlerContext ctx, HttpRequest msg)
+    {
+        try
+        {
+            long maxLength = server.getConfig().getMaxContentLength() * 1024L;
+            if(maxLength > 0 && HttpUtil.getContentLength(msg, -1L) > maxLength)
+            {
+                throw new HttpException(413, "Request Entity Too Large");
+            }
+            HttpContinueValidator[] validators = server.getContinueValidators();
+            if(validators != null)
+            {
+                for (HttpContinueValidator validator : validators)
+                {
+                    validator.validate(req);
+                }
+            }
+            ctx.writeAndFlush(new DefaultFullHttpResponse(HTTP_1_1, CONTINUE));
+        }
+        catch (HttpException e)
+        {
+            sendRejection(ctx, e);
+        }
+    }
+
+    private void sendRejection(ChannelHandlerContext ctx, HttpException e)
+    {
+        if (LOG.isLoggable(Level.FINE))
+            LOG.log(Level.FINE, String.format("%s %s refused before reading the body: %s %s", req.getMethod(), req.getPath(), e.getStatus(), e.getMessage()));
+        DefaultHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, HttpResponseStatus.valueOf(e.getStatus()));
+        response.headers().set(SERVER, server.getServerName());
+        response.headers().set(CONTENT_LENGTH, 0);
+        //the client may send the body anyway, so the connection is closed.
+        response.headers().set(CONNECTION, HttpHeaderValues.CLOSE);
+        discarding = true;
+        ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+        closeAll();
+    }
+
     private void readHeaders(ChannelHandlerContext ctx, HttpRequest msg)
     {
         if(req == null && context == null)
@@ -202,7 +252,7 @@ class HttpServerChannelHandler extends SimpleChannelInboundHandler<HttpObject>
             }
             else
             {
-                req.setContent(msg.content());
+                req.setContent(msg.content(), ctx.alloc());
             }
 
             //if is the last http content
@@ -253,7 +303,7 @@ class HttpServerChannelHandler extends SimpleChannelInboundHandler<HttpObject>
     private void handleRequest(ChannelHandlerContext ctx) throws IOException
     {
         if(resp == null) resp = new HttpBridletResponseImpl(ctx.alloc().buffer());
-        RootHttpBridlet rootHandler = Ioc.context().find(RootHttpBridlet.class);
+        RootHttpBridlet rootHandler = server.getRootBridlet();
         context.set(HttpBridletRequest.class, req);
         context.set(HttpBridletResponse.class, resp);
         rootHandler.handle(context);
@@ -264,6 +314,9 @@ class HttpServerChannelHandler extends SimpleChannelInboundHandler<HttpObject>
     {
         if(resp != null) resp.release();
         if(req != null) req.release();
+        //the request, the response and the context are not reused for the next
+        //request in this channel, a bridlet may keep a reference to them after
+        //the request is handled, only their buffers are returned to the pool.
         context = null;
         req = null;
         resp = null;
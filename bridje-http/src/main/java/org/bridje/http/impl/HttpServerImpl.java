@@ -42,6 +42,7 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
 import javax.xml.bind.JAXBException;
 import org.bridje.http.HttpBridlet;
+import org.bridje.http.HttpContinueValidator;
 import org.bridje.http.HttpServer;
 import org.bridje.http.WsServerHandler;
 import org.bridje.http.config.HttpServerConfig;
@@ -61,6 +62,9 @@ class HttpServerImpl implements HttpServer
     @Inject
     private List<WsServerHandler> handlers;
 
+    @Inject
+    private HttpContinueValidator[] continueValidators;
+
     private SSLContext sslContext;
 
     private Thread serverThread;
@@ -68,6 +72,8 @@ class HttpServerImpl implements HttpServer
     @Inject
     private IocContext<Application> appCtx;
 
+    private RootHttpBridlet rootBridlet;
+
     @PostConstruct
     public void init()
     {
@@ -94,6 +100,7 @@ class HttpServerImpl implements HttpServer
             {
                 LOG.log(Level.INFO, "Starting {0}, Listen: {1} Port: {2} {3}", new Object[]{config.getName(), config.getListen(), String.valueOf(config.getPort()), (config.isSsl() ? "SSL: " + config.getSslAlgo() : "") });
                 logBridlets();
+                rootBridlet = appCtx.find(RootHttpBridlet.class);
                 group = new NioEventLoopGroup();
                 acceptor = new NioEventLoopGroup(1);
                 try
@@ -228,4 +235,25 @@ class HttpServerImpl implements HttpServer
     {
         return config;
     }
+
+    public HttpContinueValidator[] getContinueValidators()
+    {
+        return continueValidators;
+    }
+
+    /**
+     * The first bridlet of the chain, it is resolved once when the server
+     * starts, the rest of the chain is linked by the @InjectNext fields of
+     * each bridlet.
+     *
+     * @return The root bridlet of the chain.
+     */
+    public RootHttpBridlet getRootBridlet()
+    {
+        if(rootBridlet == null)
+        {
+            rootBridlet = appCtx.find(RootHttpBridlet.class);
+        }
+        return rootBridlet;
+    }
 }
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.http.impl;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bridje.http.*;
+import org.bridje.ioc.Component;
+import org.bridje.ioc.Inject;
+import org.bridje.ioc.InjectNext;
+import org.bridje.ioc.PostConstruct;
+import org.bridje.ioc.Priority;
+import org.bridje.ioc.thls.Deadline;
+
+/**
+ * Keeps complete responses for anonymous GET requests in memory for the time
+ * given by the HttpCacheProvider components, concurrent misses for the same
+ * key wait for the first request to finish instead of running the chain again.
+ */
+@Component
+@Priority(-100)
+class MicroCacheBridlet implements HttpBridlet
+{
+    private static final Logger LOG = Logger.getLogger(MicroCacheBridlet.class.getName());
+
+    private final Map<String, HttpCachedResponse> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The stored responses in the order they were stored, the first one is
+     * the next to be evicted. The used bytes are the sum of the sizes of the
+     * responses in this queue.
+     */
+    private final ConcurrentLinkedDeque<HttpCachedResponse> order = new ConcurrentLinkedDeque<>();
+
+    private final Map<String, CompletableFuture<HttpCachedResponse>> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    @InjectNext
+    private HttpBridlet nextHandler;
+
+    @Inject
+    private HttpServerImpl server;
+
+    @Inject
+    private HttpCacheProvider[] cacheProviders;
+
+    private String[] keyHeaders;
+
+    private boolean cookiesInKey;
+
+    private long maxBytes;
+
+    @PostConstruct
+    public void init()
+    {
+        configure(server.getConfig().getCacheHeaders(), server.getConfig().getCacheMaxSize() * 1024L);
+    }
+
+    void configure(String cacheHeaders, long maxBytes)
+    {
+        keyHeaders = Arrays.stream(cacheHeaders.split(","))
+                .map(String::trim)
+                .filter(h -> !h.isEmpty())
+                .toArray(String[]::new);
+        cookiesInKey = Arrays.stream(keyHeaders).anyMatch("Cookie"::equalsIgnoreCase);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public boolean handle(HttpBridletContext context) throws IOException, HttpException
+    {
+        if(nextHandler == null) return false;
+        HttpBridletRequest req = context.getRequest();
+        int ttl = findTtl(req);
+        if(ttl <= 0) return nextHandler.handle(context);
+
+        String key = createKey(req);
+        HttpCachedResponse cached = find(key);
+        if(cached != null)
+        {
+            cached.writeTo(context.getResponse());
+            return true;
+        }
+
+        CompletableFuture<HttpCachedResponse> future = new CompletableFuture<>();
+        CompletableFuture<HttpCachedResponse> running = pending.putIfAbsent(key, future);
+        if(running != null)
+        {
+            HttpCachedResponse shared = await(running, context.getDeadline());
+            if(shared != null)
+            {
+                shared.writeTo(context.getResponse());
+                return true;
+            }
+            return nextHandler.handle(context);
+        }
+
+        HttpCachedResponse result = null;
+        try
+        {
+            boolean handled = nextHandler.handle(context);
+            if(handled)
+            {
+                result = capture(key, context.getResponse(), ttl);
+                if(result != null) store(key, result);
+            }
+            return handled;
+        }
+        finally
+        {
+            pending.remove(key, future);
+            future.complete(result);
+        }
+    }
+
+    private int findTtl(HttpBridletRequest req)
+    {
+        if(!req.isGet() || cacheProviders == null || cacheProviders.length == 0) return 0;
+        if(req.getHeader("Authorization") != null) return 0;
+        if(!cookiesInKey && req.getHeader("Cookie") != null) return 0;
+        for (HttpCacheProvider provider : cacheProviders)
+        {
+            Integer ttl = provider.ttlForPath(req.getPath());
+            if(ttl != null) return ttl;
+        }
+        return 0;
+    }
+
+    /**
+     * Creates the key of the request, the names and values of the parameters
+     * are URL encoded so the separators cannot be forged by the client.
+     */
+    String createKey(HttpBridletRequest req)
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(req.getMethod()).append(' ').append(req.getPath());
+        Map<String, HttpReqParam> params = new TreeMap<>(req.getGetParameters());
+        char sep = '?';
+        for (HttpReqParam param : params.values())
+        {
+            for (String value : param.getAllValues())
+            {
+                sb.append(sep).append(encode(param.getName())).append('=').append(encode(value));
+                sep = '&';
+            }
+        }
+        for (String header : keyHeaders)
+        {
+            sb.append('\n').append(header).append(':');
+            String value = req.getHeader(header);
+            if(value != null) sb.append(value);
+        }
+        return sb.toString();
+    }
+
+    private String encode(String value)
+    {
+        try
+        {
+            return URLEncoder.encode(value, "UTF-8");
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    HttpCachedResponse capture(String key, HttpBridletResponse resp, int ttl)
+    {
+        if(!(resp instanceof HttpBridletResponseImpl)) return null;
+        HttpBridletResponseImpl respImpl = (HttpBridletResponseImpl)resp;
+        if(respImpl.getStatusCode() != 200) return null;
+        if(respImpl.getCookies() != null && !respImpl.getCookies().isEmpty()) return null;
+        if(!isCacheable(respImpl.getHeadersMap())) return null;
+        long expiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(ttl);
+        return new HttpCachedResponse(key, respImpl, expiresAt);
+    }
+
+    /**
+     * The responses marked as private, no-store or no-cache are not cached,
+     * neither the ones that vary by a header that is not part of the key.
+     */
+    private boolean isCacheable(Map<String, Object> headers)
+    {
+        for (Map.Entry<String, Object> entry : headers.entrySet())
+        {
+            if(entry.getValue() == null) continue;
+            String value = entry.getValue().toString().toLowerCase();
+            if("Cache-Control".equalsIgnoreCase(entry.getKey()))
+            {
+                if(value.contains("private") || value.contains("no-store") || value.contains("no-cache")) return false;
+            }
+            else if("Vary".equalsIgnoreCase(entry.getKey()))
+            {
+                for (String header : value.split(","))
+                {
+                    String name = header.trim();
+                    if(!name.isEmpty() && Arrays.stream(keyHeaders).noneMatch(name::equalsIgnoreCase)) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    HttpCachedResponse find(String key)
+    {
+        HttpCachedResponse cached = entries.get(key);
+        if(cached == null || !cached.isFresh(System.nanoTime())) return null;
+        return cached;
+    }
+
+    long getUsedBytes()
+    {
+        return usedBytes.get();
+    }
+
+    void store(String key, HttpCachedResponse response)
+    {
+        int size = response.getSize();
+        if(size > maxBytes) return;
+        //the replaced response is released first so it does not evict others.
+        release(entries.get(key));
+        if(!reserve(size)) return;
+        HttpCachedResponse old = entries.put(key, response);
+        order.offerLast(response);
+        release(old);
+    }
+
+    /**
+     * Removes the response from the queue, the bytes of a response are
+     * released by who takes it out of the queue.
+     */
+    private void release(HttpCachedResponse response)
+    {
+        if(response != null && order.removeFirstOccurrence(response))
+        {
+            usedBytes.addAndGet(-response.getSize());
+            entries.remove(response.getKey(), response);
+        }
+    }
+
+    /**
+     * Adds the size to the used bytes if it fits in the max size, evicting
+     * the oldest responses until it does.
+     */
+    private boolean reserve(int size)
+    {
+        while(true)
+        {
+            long used = usedBytes.get();
+            if(used + size <= maxBytes)
+            {
+                if(usedBytes.compareAndSet(used, used + size)) return true;
+            }
+            else if(!evictOldest())
+            {
+                return false;
+            }
+        }
+    }
+
+    private boolean evictOldest()
+    {
+        HttpCachedResponse oldest = order.pollFirst();
+        if(oldest == null) return false;
+        usedBytes.addAndGet(-oldest.getSize());
+        entries.remove(oldest.getKey(), oldest);
+        return true;
+    }
+
+    private HttpCachedResponse await(CompletableFuture<HttpCachedResponse> running, Deadline deadline)
+    {
+        try
+        {
+            if(deadline == null) return running.get();
+            return running.get(deadline.remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException ex)
+        {
+            LOG.log(Level.WARNING, ex.getMessage(), ex);
+        }
+        catch (TimeoutException ex)
+        {
+            LOG.log(Level.FINE, "The deadline expired while waiting for a cached response.");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.http.impl;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bridje.http.HttpBridlet;
+import org.bridje.http.HttpBridletContext;
+import org.bridje.http.HttpBridletRequest;
+import org.bridje.http.HttpException;
+import org.bridje.http.config.RateLimitConfig;
+import org.bridje.ioc.Component;
+import org.bridje.ioc.Inject;
+import org.bridje.ioc.InjectNext;
+import org.bridje.ioc.PostConstruct;
+import org.bridje.ioc.Priority;
+
+/**
+ * Limits the requests each client can make by path prefix, using the rate
+ * limits in the HTTP server configuration. Clients that exceed the limit
+ * receive a 429 status with the Retry-After header.
+ */
+@Component
+@Priority(-200)
+class RateLimitBridlet implements HttpBridlet
+{
+    private static final Logger LOG = Logger.getLogger(RateLimitBridlet.class.getName());
+
+    private static final long SWEEP_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<String, RateLimitBucket> buckets = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    @InjectNext
+    private HttpBridlet nextHandler;
+
+    @Inject
+    private HttpServerImpl server;
+
+    private RateLimitConfig[] limits;
+
+    private long[] intervals;
+
+    private String clientHeader;
+
+    private int trustedProxies;
+
+    @PostConstruct
+    public void init()
+    {
+        limits = server.getConfig().getRateLimits().stream()
+                .sorted(Comparator.comparingInt((RateLimitConfig l) -> l.getPath().length()).reversed())
+                .toArray(RateLimitConfig[]::new);
+        intervals = new long[limits.length];
+        for (int i = 0; i < limits.length; i++)
+        {
+            intervals[i] = (long)(TimeUnit.SECONDS.toNanos(1) / limits[i].getRate());
+        }
+        clientHeader = server.getConfig().getRateLimitHeader();
+        trustedProxies = server.getConfig().getRateLimitProxies();
+    }
+
+    @Override
+    public boolean handle(HttpBridletContext context) throws IOException, HttpException
+    {
+        if(limits.length > 0)
+        {
+            HttpBridletRequest req = context.getRequest();
+            int index = findLimit(req.getPath());
+            if(index >= 0)
+            {
+                long now = System.nanoTime();
+                String client = findClient(req);
+                String key = limits[index].getPath() + '\n' + client;
+                RateLimitBucket bucket = buckets.computeIfAbsent(key, k -> new RateLimitBucket(now));
+                long wait = bucket.tryTake(now, intervals[index], limits[index].getBurst());
+                sweep(now);
+                if(wait > 0)
+                {
+                    long retryAfter = Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+                    if(LOG.isLoggable(Level.FINE))
+                        LOG.log(Level.FINE, String.format("Rate limit exceeded by %s on %s", client, req.getPath()));
+                    context.getResponse().setHeader("Retry-After", retryAfter);
+                    throw new HttpException(429, "Too Many Requests");
+                }
+            }
+        }
+        if(nextHandler == null) return false;
+        return nextHandler.handle(context);
+    }
+
+    private int findLimit(String path)
+    {
+        for (int i = 0; i < limits.length; i++)
+        {
+            if(path.startsWith(limits[i].getPath())) return i;
+        }
+        return -1;
+    }
+
+    private String findClient(HttpBridletRequest req)
+    {
+        if(clientHeader != null)
+        {
+            String value = req.getHeader(clientHeader);
+            if(value != null && !value.isEmpty())
+            {
+                return findClient(value, trustedProxies);
+            }
+        }
+        return req.getClientIp();
+    }
+
+    /**
+     * Finds the client in the value of the forwarded header, the entries are
+     * appended by each proxy so only the last ones, added by the trusted
+     * proxies, can be used to identify the client.
+     *
+     * @param value   The value of the header.
+     * @param proxies The number of trusted proxies.
+     *
+     * @return The client, or the left-most entry if there are fewer entries
+     *         than trusted proxies.
+     */
+    static String findClient(String value, int proxies)
+    {
+        int end = value.length();
+        for (int i = 1; i < proxies; i++)
+        {
+            int comma = value.lastIndexOf(',', end - 1);
+            if(comma < 0) break;
+            end = comma;
+        }
+        int start = value.lastIndexOf(',', end - 1) + 1;
+        return value.substring(start, end).trim();
+    }
+
+    private void sweep(long now)
+    {
+        long last = lastSweep.get();
+        if(now - last < SWEEP_INTERVAL || !lastSweep.compareAndSet(last, now)) return;
+        buckets.entrySet().removeIf(e -> e.getValue().isFullSince(now));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.http.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket. Instead of counting tokens it keeps the time at
+ * which the bucket will be full again, so taking a token is a single compare
+ * and set and a bucket that is full again can be dropped without losing any
+ * state.
+ */
+class RateLimitBucket
+{
+    private final AtomicLong fullAt;
+
+    public RateLimitBucket(long now)
+    {
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Tries to take a token from this bucket.
+     *
+     * @param now      The current time as given by System.nanoTime.
+     * @param interval The nanoseconds needed to refill one token.
+     * @param burst    The capacity of the bucket.
+     *
+     * @return 0 if the token was taken, or the nanoseconds to wait before a
+     *         token is available.
+     */
+    public long tryTake(long now, long interval, int burst)
+    {
+        long capacity = interval * burst;
+        while (true)
+        {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + interval;
+            long wait = next - now - capacity;
+            if (wait > 0)
+            {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next))
+            {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Determines if this bucket has been full since the given time.
+     *
+     * @param time The time as given by System.nanoTime.
+     *
+     * @return true the bucket is full and can be discarded.
+     */
+    public boolean isFullSince(long time)
+    {
+        return fullAt.get() - time <= 0;
+    }
+}
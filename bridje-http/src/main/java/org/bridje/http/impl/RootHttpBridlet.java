@@ -26,6 +26,7 @@ import org.bridje.ioc.Component;
 import org.bridje.ioc.Inject;
 import org.bridje.ioc.InjectNext;
 import org.bridje.ioc.Priority;
+import org.bridje.ioc.thls.Deadline;
 import org.bridje.ioc.thls.Thls;
 import org.bridje.ioc.thls.ThlsActionException;
 
@@ -49,29 +50,24 @@ class RootHttpBridlet implements HttpBridlet
     @Override
     public boolean handle(HttpBridletContext context) throws IOException
     {
+        HttpBridletRequest req = context.getRequest();
+        int timeout = findTimeout(req);
+        Deadline deadline = Deadline.after(timeout, TimeUnit.SECONDS);
+        if(context instanceof HttpBridletContextImpl)
+        {
+            ((HttpBridletContextImpl)context).setDeadline(deadline);
+        }
         Callable<Boolean> task = new Callable<Boolean>()
         {
             @Override
             public Boolean call() throws IOException
             {
-                return doHandle(context);
+                return doHandle(context, deadline);
             }
         };
         Future<Boolean> future = executor.submit(task);
-        HttpBridletRequest req = context.getRequest();
         try
         {
-            Integer timeout = null;
-            int minTimeout = 5;
-            if (timeoutProviders != null)
-                for (HttpTimeoutProvider provider : timeoutProviders)
-                {
-                    timeout = provider.timeoutForPath(req.getPath());
-                    if (timeout != null && timeout >= minTimeout)
-                        break;
-                }
-            if (timeout == null || timeout < minTimeout)
-                timeout = server.getConfig().getRequestTimeout();
             return future.get(timeout, TimeUnit.SECONDS);
         }
         catch(InterruptedException | ExecutionException ex)
@@ -85,19 +81,43 @@ class RootHttpBridlet implements HttpBridlet
         }
         finally
         {
+            deadline.cancel();
             future.cancel(true);
         }
         return true;
     }
 
-    private boolean doHandle(HttpBridletContext context) throws IOException
+    private int findTimeout(HttpBridletRequest req)
+    {
+        Integer timeout = null;
+        int minTimeout = 5;
+        if (timeoutProviders != null)
+            for (HttpTimeoutProvider provider : timeoutProviders)
+            {
+                timeout = provider.timeoutForPath(req.getPath());
+                if (timeout != null && timeout >= minTimeout)
+                    break;
+            }
+        if (timeout == null || timeout < minTimeout)
+            timeout = server.getConfig().getRequestTimeout();
+        return timeout;
+    }
+
+    private boolean doHandle(HttpBridletContext context, Deadline deadline) throws IOException
     {
         return Thls.doAsEx(new ThlsActionException<Boolean, IOException>()
         {
             @Override
             public Boolean execute() throws IOException
             {
-                return performHandle(context);
+                return Thls.doAsEx(new ThlsActionException<Boolean, IOException>()
+                {
+                    @Override
+                    public Boolean execute() throws IOException
+                    {
+                        return performHandle(context);
+                    }
+                }, Deadline.class, deadline);
             }
         }, HttpBridletRequest.class, context.getRequest());
     }
@@ -0,0 +1,214 @@
+package org.bridje.http.impl;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.bridje.http.HttpBridletContext;
+import org.bridje.http.HttpContinueValidator;
+import org.bridje.http.config.HttpServerConfig;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class HttpServerChannelHandlerTest
+{
+    @Test
+    public void testKeepAliveRequests() throws IOException
+    {
+        List<String> stale = new ArrayList<>();
+        TestServer server = new TestServer(0, context ->
+        {
+            stale.add(context.get(String.class));
+            context.set(String.class, context.getRequest().getPath());
+            context.getResponse().getOutputStream().write(context.getRequest().getPath().getBytes(StandardCharsets.UTF_8));
+        });
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpServerChannelHandler(server));
+
+        channel.writeInbound(createRequest("/first"), LastHttpContent.EMPTY_LAST_CONTENT);
+        assertResponse(channel.readOutbound(), 200, "/first");
+
+        channel.writeInbound(createRequest("/second"), LastHttpContent.EMPTY_LAST_CONTENT);
+        assertResponse(channel.readOutbound(), 200, "/second");
+
+        assertEquals(2, stale.size());
+        assertNull(stale.get(0));
+        assertNull(stale.get(1));
+        assertTrue(channel.isOpen());
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testAcceptedContinue() throws IOException
+    {
+        TestServer server = new TestServer(1, context ->
+        {
+            InputStream is = context.getRequest().getInputStream();
+            OutputStream os = context.getResponse().getOutputStream();
+            int b;
+            while ((b = is.read()) != -1) os.write(b);
+        });
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpServerChannelHandler(server));
+
+        channel.writeInbound(createContinueRequest("/upload", 5));
+        assertResponse(channel.readOutbound(), 100, "");
+        assertEquals(0, server.getHandled());
+
+        channel.writeInbound(new DefaultLastHttpContent(Unpooled.copiedBuffer("hello", StandardCharsets.UTF_8)));
+        assertResponse(channel.readOutbound(), 200, "hello");
+        assertEquals(1, server.getHandled());
+        assertTrue(channel.isOpen());
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testOversizeRejected() throws IOException
+    {
+        TestServer server = new TestServer(1, context -> fail("The request should not be dispatched."));
+        CloseRecorder closer = new CloseRecorder();
+        EmbeddedChannel channel = new EmbeddedChannel(closer, new HttpServerChannelHandler(server));
+
+        channel.writeInbound(createContinueRequest("/upload", 2048));
+        FullHttpResponse response = channel.readOutbound();
+        assertEquals(HttpHeaderValues.CLOSE.toString(), response.headers().get(HttpHeaderNames.CONNECTION));
+        assertResponse(response, 413, "");
+        assertTrue(closer.closed);
+
+        //the client may send the body anyway, it must be dropped.
+        HttpContent chunk = new DefaultHttpContent(Unpooled.copiedBuffer(new byte[1024]));
+        HttpContent last = new DefaultLastHttpContent(Unpooled.copiedBuffer(new byte[1024]));
+        channel.writeInbound(chunk, last);
+        assertEquals(0, chunk.refCnt());
+        assertEquals(0, last.refCnt());
+        assertNull(channel.readOutbound());
+        assertEquals(0, server.getHandled());
+
+        //a new request on the same connection is not dispatched either.
+        channel.writeInbound(createRequest("/next"), LastHttpContent.EMPTY_LAST_CONTENT);
+        assertNull(channel.readOutbound());
+        assertEquals(0, server.getHandled());
+        assertFalse(channel.finish());
+    }
+
+    private static HttpRequest createRequest(String path)
+    {
+        return new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, path);
+    }
+
+    private static HttpRequest createContinueRequest(String path, int length)
+    {
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, path);
+        request.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/octet-stream");
+        request.headers().set(HttpHeaderNames.CONTENT_LENGTH, length);
+        request.headers().set(HttpHeaderNames.EXPECT, HttpHeaderValues.CONTINUE);
+        return request;
+    }
+
+    private static void assertResponse(Object msg, int status, String body)
+    {
+        assertTrue(msg instanceof FullHttpResponse);
+        FullHttpResponse response = (FullHttpResponse)msg;
+        try
+        {
+            //the buffer of the response is released once, by whoever writes it.
+            assertEquals(1, response.refCnt());
+            assertEquals(status, response.status().code());
+            assertEquals(body, response.content().toString(StandardCharsets.UTF_8));
+        }
+        finally
+        {
+            response.release();
+        }
+    }
+
+    /**
+     * Keeps the channel open when the handler closes it, so the test can
+     * check what happens with the data the client sends after that.
+     */
+    static class CloseRecorder extends ChannelOutboundHandlerAdapter
+    {
+        private boolean closed;
+
+        @Override
+        public void close(ChannelHandlerContext ctx, ChannelPromise promise)
+        {
+            closed = true;
+            promise.setSuccess();
+        }
+    }
+
+    interface TestHandler
+    {
+        void handle(HttpBridletContext context) throws IOException;
+    }
+
+    static class TestServer extends HttpServerImpl
+    {
+        private final HttpServerConfig config = new HttpServerConfig();
+
+        private final RootHttpBridlet root;
+
+        private int handled;
+
+        TestServer(int maxContentLength, TestHandler handler)
+        {
+            config.setMaxContentLength(maxContentLength);
+            root = new RootHttpBridlet()
+            {
+                @Override
+                public boolean handle(HttpBridletContext context) throws IOException
+                {
+                    handled++;
+                    handler.handle(context);
+                    return true;
+                }
+            };
+        }
+
+        @Override
+        public HttpServerConfig getConfig()
+        {
+            return config;
+        }
+
+        @Override
+        public HttpContinueValidator[] getContinueValidators()
+        {
+            return null;
+        }
+
+        @Override
+        public RootHttpBridlet getRootBridlet()
+        {
+            return root;
+        }
+
+        @Override
+        public String getServerName()
+        {
+            return "test";
+        }
+
+        int getHandled()
+        {
+            return handled;
+        }
+    }
+}
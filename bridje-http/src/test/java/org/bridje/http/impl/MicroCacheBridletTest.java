@@ -0,0 +1,151 @@
+package org.bridje.http.impl;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class MicroCacheBridletTest
+{
+    @Test
+    public void testKeyCollision()
+    {
+        MicroCacheBridlet cache = createCache();
+        String encoded = cache.createKey(createRequest("/page?a=1%26b%3D2"));
+        String plain = cache.createKey(createRequest("/page?a=1&b=2"));
+        assertNotEquals(encoded, plain);
+        assertEquals(plain, cache.createKey(createRequest("/page?b=2&a=1")));
+    }
+
+    @Test
+    public void testTtlExpiry() throws IOException
+    {
+        MicroCacheBridlet cache = createCache();
+        HttpCachedResponse cached = cache.capture("key", createResponse(), 1);
+        assertNotNull(cached);
+        assertTrue(cached.isFresh(System.nanoTime()));
+        assertFalse(cached.isFresh(System.nanoTime() + TimeUnit.SECONDS.toNanos(2)));
+    }
+
+    @Test
+    public void testNonCacheableResponses() throws IOException
+    {
+        MicroCacheBridlet cache = createCache();
+
+        HttpBridletResponseImpl notFound = createResponse();
+        notFound.setStatusCode(404);
+        assertNull(cache.capture("key", notFound, 10));
+
+        HttpBridletResponseImpl withCookie = createResponse();
+        withCookie.addCookie("session", "1");
+        assertNull(cache.capture("key", withCookie, 10));
+
+        for (String cacheControl : new String[]{"private", "no-store", "no-cache", "max-age=0, Private"})
+        {
+            HttpBridletResponseImpl resp = createResponse();
+            resp.setHeader("Cache-Control", cacheControl);
+            assertNull(cacheControl, cache.capture("key", resp, 10));
+        }
+
+        HttpBridletResponseImpl varyByKey = createResponse();
+        varyByKey.setHeader("Vary", "Accept-Encoding");
+        assertNotNull(cache.capture("key", varyByKey, 10));
+
+        HttpBridletResponseImpl varyByOther = createResponse();
+        varyByOther.setHeader("Vary", "Accept-Encoding, User-Agent");
+        assertNull(cache.capture("key", varyByOther, 10));
+    }
+
+    @Test
+    public void testEviction() throws IOException
+    {
+        MicroCacheBridlet cache = createCache();
+        HttpCachedResponse first = cache.capture("first", createResponse(), 10);
+        HttpCachedResponse second = cache.capture("second", createResponse(), 10);
+        //the key is part of the size.
+        assertEquals(2, second.getSize() - first.getSize());
+        cache.configure("Accept-Encoding", first.getSize() + second.getSize());
+        cache.store("first", first);
+        cache.store("second", second);
+        cache.store("third", cache.capture("third", createResponse(), 10));
+        assertTrue(cache.getUsedBytes() <= first.getSize() + second.getSize());
+        //the first stored response is evicted to make room for the third.
+        assertNull(cache.find("first"));
+        assertNotNull(cache.find("second"));
+        assertNotNull(cache.find("third"));
+
+        //replacing a response releases the bytes of the old one.
+        long used = cache.getUsedBytes();
+        cache.store("third", cache.capture("third", createResponse(), 10));
+        assertEquals(used, cache.getUsedBytes());
+        assertNotNull(cache.find("second"));
+    }
+
+    @Test
+    public void testConcurrentStore() throws Exception
+    {
+        MicroCacheBridlet cache = createCache();
+        int size = cache.capture("key-00", createResponse(), 10).getSize();
+        cache.configure("Accept-Encoding", size * 10);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try
+        {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++)
+            {
+                int thread = t;
+                results.add(executor.submit(() ->
+                {
+                    for (int i = 0; i < 500; i++)
+                    {
+                        String key = "key-" + thread + (i % 20);
+                        cache.store(key, cache.capture(key, createResponse(), 10));
+                        assertTrue(cache.getUsedBytes() <= size * 10);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results)
+            {
+                result.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        assertTrue(cache.getUsedBytes() <= size * 10);
+    }
+
+    private MicroCacheBridlet createCache()
+    {
+        MicroCacheBridlet cache = new MicroCacheBridlet();
+        cache.configure("Accept-Encoding", 1024 * 1024);
+        return cache;
+    }
+
+    private HttpBridletRequestImpl createRequest(String uri)
+    {
+        HttpBridletRequestImpl req = new HttpBridletRequestImpl(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri), "127.0.0.1", 0);
+        req.setQueryString(new QueryStringDecoder(uri).parameters());
+        return req;
+    }
+
+    private HttpBridletResponseImpl createResponse() throws IOException
+    {
+        HttpBridletResponseImpl resp = new HttpBridletResponseImpl(Unpooled.buffer());
+        resp.getOutputStream().write("body".getBytes(StandardCharsets.UTF_8));
+        return resp;
+    }
+}
@@ -0,0 +1,53 @@
+package org.bridje.http.impl;
+
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class RateLimitBucketTest
+{
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testLimit()
+    {
+        long now = 1000 * SECOND;
+        RateLimitBucket bucket = new RateLimitBucket(now);
+        for (int i = 0; i < 5; i++)
+        {
+            assertEquals(0, bucket.tryTake(now, SECOND, 5));
+        }
+        long wait = bucket.tryTake(now, SECOND, 5);
+        assertEquals(SECOND, wait);
+        assertFalse(bucket.isFullSince(now));
+    }
+
+    @Test
+    public void testRefill()
+    {
+        long now = 1000 * SECOND;
+        RateLimitBucket bucket = new RateLimitBucket(now);
+        for (int i = 0; i < 3; i++)
+        {
+            assertEquals(0, bucket.tryTake(now, SECOND, 3));
+        }
+        assertTrue(bucket.tryTake(now, SECOND, 3) > 0);
+        assertTrue(bucket.tryTake(now + SECOND / 2, SECOND, 3) > 0);
+        assertEquals(0, bucket.tryTake(now + SECOND, SECOND, 3));
+        assertTrue(bucket.tryTake(now + SECOND, SECOND, 3) > 0);
+        assertTrue(bucket.isFullSince(now + 10 * SECOND));
+        for (int i = 0; i < 3; i++)
+        {
+            assertEquals(0, bucket.tryTake(now + 10 * SECOND, SECOND, 3));
+        }
+    }
+
+    @Test
+    public void testForwardedClient()
+    {
+        assertEquals("10.0.0.1", RateLimitBridlet.findClient("10.0.0.1", 1));
+        assertEquals("10.0.0.2", RateLimitBridlet.findClient("spoofed, 10.0.0.2", 1));
+        assertEquals("10.0.0.2", RateLimitBridlet.findClient("spoofed,10.0.0.2, 192.168.0.1", 2));
+        assertEquals("10.0.0.1", RateLimitBridlet.findClient("10.0.0.1", 3));
+    }
+}
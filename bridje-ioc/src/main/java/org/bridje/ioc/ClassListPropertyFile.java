@@ -18,7 +18,10 @@ package org.bridje.ioc;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
 import java.util.logging.Logger;
 import javax.annotation.processing.*;
 import javax.lang.model.element.Element;
@@ -37,6 +40,11 @@ public abstract class ClassListPropertyFile extends AbstractProcessor
 
     private static final Logger LOG = Logger.getLogger(ClassListPropertyFile.class.getName());
 
+    /**
+     * The files written by the processors of each compilation.
+     */
+    private static final Map<Filer, Set<String>> FILES = new WeakHashMap<>();
+
     /**
      * Gets the name for the file that will be written by this annotation processor.
      *
@@ -66,6 +74,10 @@ public abstract class ClassListPropertyFile extends AbstractProcessor
             //Creating output file
             FileObject fobj = filer.createResource(StandardLocation.CLASS_OUTPUT, "", getFileName());
             writer = fobj.openWriter();
+            synchronized (FILES)
+            {
+                FILES.computeIfAbsent(filer, f -> new TreeSet<>()).add(getFileName());
+            }
         }
         catch (IOException e)
         {
@@ -92,6 +104,12 @@ public abstract class ClassListPropertyFile extends AbstractProcessor
                     }
                 }
             }
+            if (roundEnv.processingOver() && writer != null)
+            {
+                //no more elements will be written to the file.
+                writer.close();
+                writer = null;
+            }
         }
         catch (IOException ex)
         {
@@ -101,6 +119,21 @@ public abstract class ClassListPropertyFile extends AbstractProcessor
         return true;
     }
 
+    /**
+     * Finds the names of the files written by all the processors that extend
+     * this class in the current compilation.
+     *
+     * @return The names of the files.
+     */
+    protected Set<String> findFileNames()
+    {
+        synchronized (FILES)
+        {
+            Set<String> files = FILES.get(processingEnv.getFiler());
+            return files == null ? new TreeSet<>() : new TreeSet<>(files);
+        }
+    }
+
     /**
      * This method appends key=value to the output file.
      * <p>
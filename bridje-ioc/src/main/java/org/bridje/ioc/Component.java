@@ -26,6 +26,13 @@ import java.lang.annotation.Target;
  * <p>
  * This annotation mark any class as an IoC component. if scope of the component
  * is no specified it will be an application scoped component.
+ * <p>
+ * For each component a {@link ComponentFactory} is generated at compile time
+ * that creates, injects and initializes the component without reflection. The
+ * generated factory only applies to non-private members, if a component has a
+ * private {@link Inject} field or a private {@link PostConstruct} method its
+ * fields or methods are handled by reflection as usual, so declare them
+ * package-private to avoid the reflection.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
@@ -43,7 +50,9 @@ public @interface Component
      * <p>
      * @return true the component will be instantiated eager, the default is
      *         false witch means that the component will be instantiated lazy
-     *         the first time some one request it.
+     *         the first time some one request it. The eager components
+     *         are created in parallel if the bridje.ioc.initThreads system
+     *         property is greater than one.
      */
     boolean instantiate() default false;
 }
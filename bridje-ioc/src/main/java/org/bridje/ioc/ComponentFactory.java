@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.ioc;
+
+/**
+ * Creates, injects and initializes a component without reflection. The
+ * implementations of this interface are generated at compile time by the
+ * components annotation processor, one for each component class, and are used
+ * by the IoC context when available. This interface is not intended to be
+ * implemented by hand.
+ *
+ * @param <T> The type of the component.
+ */
+public interface ComponentFactory<T>
+{
+    /**
+     * Creates a new instance of the component.
+     *
+     * @return The new instance.
+     */
+    T create();
+
+    /**
+     * Injects the dependencies of the component found in the given context.
+     *
+     * @param instance The component instance.
+     * @param context  The context to find the dependencies.
+     *
+     * @return true if all the dependencies where injected, false if some of
+     *         the fields of the component are not accessible to the factory
+     *         and reflection must be used instead.
+     */
+    boolean inject(T instance, IocContext<?> context);
+
+    /**
+     * Calls the PostConstruct methods of the component.
+     *
+     * @param instance The component instance.
+     *
+     * @return true if all the methods where called, false if some of them are
+     *         not accessible to the factory and reflection must be used
+     *         instead.
+     */
+    boolean postConstruct(T instance);
+}
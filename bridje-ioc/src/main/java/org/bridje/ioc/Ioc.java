@@ -48,7 +48,24 @@ public class Ioc
         if (appContext == null)
         {
             appContext = ContextFactory.createApplicationContext(new Application());
+            ContextFactory.createEagerComponents(appContext);
+            ContextFactory.scheduleTasks(appContext);
+            ContextFactory.reportStartup();
         }
         return appContext;
     }
+
+    /**
+     * Stops the background services of the APPLICATION scoped
+     * {@link IocContext}, cancelling the tasks of the
+     * {@link org.bridje.ioc.schedule.Scheduler}. The context can still be used
+     * after this, the tasks scheduled later run in new threads.
+     */
+    public static void stop()
+    {
+        if (appContext != null)
+        {
+            ContextFactory.stopTasks(appContext);
+        }
+    }
 }
@@ -92,7 +92,8 @@ public interface IocContext<S extends Scope>
      *                <p>
      * @return An array of objects who extends or implement the class of the
      * service provided, or an empty array if no component provides this
-     * services in the context.
+     * services in the context. The array is cached by the context and returned
+     * again in the next calls, so it must not be modified.
      */
     <T> T[] findAll(Class<T> service);
 
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.ioc;
+
+/**
+ * An {@link Inject} field of this type receives an object that finds the
+ * component for the service given by the type parameter the first time the
+ * get method is called, instead of finding it when the owner component is
+ * created.
+ *
+ * @param <T> The type of the service.
+ */
+public interface Provider<T>
+{
+    /**
+     * Finds the component for the service, the first call finds it in the
+     * context of the owner component and the next calls return the same
+     * instance.
+     *
+     * @return The component, or null if no component provides the service.
+     */
+    T get();
+}
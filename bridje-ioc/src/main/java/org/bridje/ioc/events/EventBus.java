@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bridje.ioc.events;
+
+/**
+ * An in-process event bus, so components can notify others without calling
+ * them directly.
+ * <p>
+ * The synchronous listeners are called in the thread that publishes the
+ * event, in the order of their priority. The asynchronous listeners are called
+ * in the threads of the event bus without the thread local storage of the
+ * thread that published the event, since it may belong to a request that has
+ * already ended, the data they need must be in the event. The pending
+ * asynchronous deliveries are limited
+ * by a bounded queue, when the queue is full the publishing thread delivers
+ * the event itself, so slow listeners slow down the publishers instead of
+ * filling the memory.
+ * <p>
+ * An exception thrown by a listener is logged and does not prevent the event
+ * from being delivered to the other listeners.
+ * <p>
+ * The number of threads and the size of the queue can be set with the
+ * {@value #THREADS_PROPERTY} and {@value #QUEUE_SIZE_PROPERTY} system
+ * properties.
+ */
+public interface EventBus
+{
+    /**
+     * The system property with the number of threads for the asynchronous
+     * listeners, 2 by default.
+     */
+    public static final String THREADS_PROPERTY = "bridje.ioc.events.threads";
+
+    /**
+     * The system property with the maximum number of pending asynchronous
+     * deliveries, 1000 by default.
+     */
+    public static final String QUEUE_SIZE_PROPERTY = "bridje.ioc.events.queueSize";
+
+    /**
+     * Publishes an event to all the listeners of its class.
+     *
+     * @param event The event to publish.
+     */
+    void publish(Object event);
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2015 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bridje.ioc.events;
+
+/**
+ * A listener for the events published in the {@link EventBus}. The listeners
+ * are the components that implements this interface, they are found by the
+ * event bus in the application context the first time an event of a class is
+ * published.
+ * <pre>
+ * &#64;Component
+ * class UserAuditListener implements EventListener&lt;UserCreated&gt;
+ * {
+ *     public void onEvent(UserCreated event)
+ *     {
+ *         //called for every UserCreated event (or subclasses of it).
+ *     }
+ *
+ *     public boolean isAsync()
+ *     {
+ *         return true;
+ *     }
+ * }
+ * </pre>
+ * Use Object as the type of the event to listen to all the events.
+ *
+ * @param <E> The class of the events this listener receives.
+ */
+public interface EventListener<E>
+{
+    /**
+     * Called when an event is published.
+     *
+     * @param event The published event.
+     */
+    void onEvent(E event);
+
+    /**
+     * Determines if the events must be delivered to this listener in the
+     * thread that published them or in the threads of the event bus.
+     *
+     * @return true the events are delivered asynchronously, false by
+     *         default.
+     */
+    default boolean isAsync()
+    {
+        return false;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bridje.ioc.events.impl;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bridje.ioc.Application;
+import org.bridje.ioc.Component;
+import org.bridje.ioc.Inject;
+import org.bridje.ioc.IocContext;
+import org.bridje.ioc.events.EventBus;
+import org.bridje.ioc.events.EventListener;
+import org.bridje.ioc.impl.ClassUtils;
+import org.bridje.ioc.thls.ThlsService;
+
+@Component
+class EventBusImpl implements EventBus
+{
+    private static final Logger LOG = Logger.getLogger(EventBusImpl.class.getName());
+
+    @Inject
+    private IocContext<Application> context;
+
+    @Inject
+    private ThlsService thlsServ;
+
+    private final Map<Class<?>, EventListener[]> listenersMap = new ConcurrentHashMap<>();
+
+    private volatile ThreadPoolExecutor executor;
+
+    @Override
+    public void publish(Object event)
+    {
+        if (event == null)
+        {
+            return;
+        }
+        EventListener[] listeners = listenersMap.computeIfAbsent(event.getClass(), this::findListeners);
+        for (EventListener listener : listeners)
+        {
+            if (listener.isAsync())
+            {
+                //the publisher may be a request that ends before the delivery,
+                //so its thread local data is not available to the listener.
+                findExecutor().execute(thlsServ.isolate(() -> deliver(listener, event)));
+            }
+            else
+            {
+                deliver(listener, event);
+            }
+        }
+    }
+
+    private void deliver(EventListener listener, Object event)
+    {
+        try
+        {
+            listener.onEvent(event);
+        }
+        catch (RuntimeException e)
+        {
+            LOG.log(Level.SEVERE, String.format("The listener %s failed for the event %s.", listener.getClass().getName(), event), e);
+        }
+    }
+
+    private EventListener[] findListeners(Class<?> eventCls)
+    {
+        List<EventListener> result = new ArrayList<>();
+        for (EventListener listener : context.findAll(EventListener.class))
+        {
+            if (eventClass(listener.getClass()).isAssignableFrom(eventCls))
+            {
+                result.add(listener);
+            }
+        }
+        return result.toArray(new EventListener[result.size()]);
+    }
+
+    /**
+     * Finds the generic parameter of EventListener in the class of the
+     * listener, example EventListener&lt;UserCreated&gt; -&gt; UserCreated.
+     */
+    private static Class<?> eventClass(Class<?> listenerCls)
+    {
+        Class<?> current = listenerCls;
+        while (current != null && current != Object.class)
+        {
+            for (Type ifc : current.getGenericInterfaces())
+            {
+                if (ifc instanceof ParameterizedType
+                        && ClassUtils.rawClass(ifc) == EventListener.class)
+                {
+                    Class<?> result = ClassUtils.rawClass(((ParameterizedType) ifc).getActualTypeArguments()[0]);
+                    return result == null ? Object.class : result;
+                }
+            }
+            current = current.getSuperclass();
+        }
+        return Object.class;
+    }
+
+    private ThreadPoolExecutor findExecutor()
+    {
+        if (executor == null)
+        {
+            synchronized (this)
+            {
+                if (executor == null)
+                {
+                    executor = createExecutor();
+                }
+            }
+        }
+        return executor;
+    }
+
+    private ThreadPoolExecutor createExecutor()
+    {
+        int threads = Math.max(1, Integer.getInteger(THREADS_PROPERTY, 2));
+        int queueSize = Math.max(1, Integer.getInteger(QUEUE_SIZE_PROPERTY, 1000));
+        AtomicInteger count = new AtomicInteger();
+        //when the queue is full the publisher delivers the event itself.
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r ->
+                {
+                    Thread thread = new Thread(r, "bridje-events-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
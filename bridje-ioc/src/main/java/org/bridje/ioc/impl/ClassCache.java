@@ -20,24 +20,42 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bridje.ioc.Component;
+import org.bridje.ioc.ComponentFactory;
 import org.bridje.ioc.Inject;
 import org.bridje.ioc.InjectNext;
+import org.bridje.ioc.Lazy;
 import org.bridje.ioc.PostConstruct;
 
 class ClassCache
 {
+    private static final Logger LOG = Logger.getLogger(ClassCache.class.getName());
+
     private final List<Field> injectFields;
 
     private final Constructor constructor;
 
     private final List<Method> postConstructs;
 
+    private final ComponentFactory factory;
+
+    private final Map<Field, Constructor<?>> lazyProxies;
+
+    private volatile int[] contextListeners;
+
     public ClassCache(Class<?> cls)
     {
         injectFields = createInjectFields(cls);
         constructor = findConstructor(cls);
         postConstructs = findPostConstructs(cls);
+        factory = findFactory(cls);
+        lazyProxies = findLazyProxies(cls, injectFields);
     }
 
     public List<Field> getInjectFields()
@@ -55,7 +73,57 @@ class ClassCache
         return postConstructs;
     }
 
-    private List<Field> createInjectFields(Class<?> cls)
+    /**
+     * The factory generated at compile time for the component, or null if the
+     * component does not have one.
+     *
+     * @return The ComponentFactory for the class.
+     */
+    public ComponentFactory getFactory()
+    {
+        return factory;
+    }
+
+    /**
+     * The constructor of the generated proxy for a Lazy field.
+     *
+     * @param field The field.
+     *
+     * @return The constructor that receives the Provider, or null if the
+     *         field is not lazy or its proxy is not available.
+     */
+    public Constructor<?> getLazyProxy(Field field)
+    {
+        return lazyProxies.get(field);
+    }
+
+    /**
+     * The positions of the ContextListeners that apply to this class in the
+     * listeners array of the contexts of the scope. The listeners of all the
+     * contexts of the same scope are the same components in the same order,
+     * so they are computed only once.
+     *
+     * @return The positions of the listeners, or null if they have not been
+     *         computed yet.
+     */
+    public int[] getContextListeners()
+    {
+        return contextListeners;
+    }
+
+    public void setContextListeners(int[] contextListeners)
+    {
+        this.contextListeners = contextListeners;
+    }
+
+    /**
+     * Finds the fields of the class annotated with Inject or InjectNext.
+     *
+     * @param cls The class to look for.
+     *
+     * @return The injected fields, accessible.
+     */
+    static List<Field> createInjectFields(Class<?> cls)
     {
         List<Field> result = new ArrayList<>();
         Field[] declaredFields = cls.getDeclaredFields();
@@ -105,4 +173,56 @@ class ClassCache
         return result;
     }
 
+    private Map<Field, Constructor<?>> findLazyProxies(Class<?> cls, List<Field> fields)
+    {
+        Map<Field, Constructor<?>> result = null;
+        for (Field field : fields)
+        {
+            if (field.getAnnotation(Lazy.class) == null)
+            {
+                continue;
+            }
+            String proxyName = cls.getName() + "_" + field.getName() + ComponentProcessor.LAZY_SUFFIX;
+            try
+            {
+                Class<?> proxyCls = Class.forName(proxyName, true, cls.getClassLoader());
+                Constructor<?> proxyConstructor = proxyCls.getDeclaredConstructor(org.bridje.ioc.Provider.class);
+                proxyConstructor.setAccessible(true);
+                if (result == null)
+                {
+                    result = new HashMap<>();
+                }
+                result.put(field, proxyConstructor);
+            }
+            catch (ClassNotFoundException | NoSuchMethodException ex)
+            {
+                LOG.log(Level.WARNING, String.format("There is no lazy proxy for the field %s of %s, it will be injected as usual.", field.getName(), cls.getName()));
+            }
+        }
+        return result == null ? Collections.emptyMap() : result;
+    }
+
+    private ComponentFactory findFactory(Class<?> cls)
+    {
+        if (cls.getAnnotation(Component.class) == null)
+        {
+            return null;
+        }
+        try
+        {
+            Class<?> factoryCls = Class.forName(cls.getName() + ComponentProcessor.FACTORY_SUFFIX, true, cls.getClassLoader());
+            Constructor<?> factoryConstructor = factoryCls.getDeclaredConstructor();
+            factoryConstructor.setAccessible(true);
+            return (ComponentFactory)factoryConstructor.newInstance();
+        }
+        catch (ClassNotFoundException ex)
+        {
+            return null;
+        }
+        catch (ReflectiveOperationException | ClassCastException ex)
+        {
+            LOG.log(Level.WARNING, ex.getMessage(), ex);
+        }
+        return null;
+    }
 }
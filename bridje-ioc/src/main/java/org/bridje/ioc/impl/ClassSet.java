@@ -20,10 +20,14 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import org.bridje.ioc.ClassNavigator;
 import org.bridje.ioc.ClassRepository;
+import org.bridje.ioc.Component;
 import org.bridje.ioc.FieldNavigator;
 import org.bridje.ioc.MethodNavigator;
+import org.bridje.ioc.schedule.Scheduled;
 
 /**
  * This class represents a set of classes, his propouse is to serve as a
@@ -32,6 +36,8 @@ import org.bridje.ioc.MethodNavigator;
  */
 class ClassSet implements Iterable<Class<?>>, ClassRepository
 {
+    private static final Logger LOG = Logger.getLogger(ClassSet.class.getName());
+
     /**
      * The set of classes for this instance.
      */
@@ -40,7 +46,18 @@ class ClassSet implements Iterable<Class<?>>, ClassRepository
     /**
      * The ordered list of classes for this instance
      */
-    private final List<Class<?>> sortedClasses;
+    private List<Class<?>> sortedClasses;
+
+    /**
+     * The names of all the classes in this set, including the ones that are
+     * not loaded yet.
+     */
+    private final Set<String> names;
+
+    /**
+     * The components from the index whose classes are not loaded yet.
+     */
+    private final Map<String, ComponentIndex.Entry> pending;
 
     /**
      * Default constructor for internal use of this class only.
@@ -49,6 +66,27 @@ class ClassSet implements Iterable<Class<?>>, ClassRepository
     {
         clsSet = new HashSet<>();
         sortedClasses = new ArrayList<>();
+        names = new LinkedHashSet<>();
+        pending = new LinkedHashMap<>();
+    }
+
+    /**
+     * Constructor that receive the already loaded classes and the components
+     * of the index to be loaded when they are needed.
+     *
+     * @param classes The loaded classes.
+     * @param entries The components from the index.
+     */
+    ClassSet(Collection<Class<?>> classes, Collection<ComponentIndex.Entry> entries)
+    {
+        this(classes);
+        for (ComponentIndex.Entry entry : entries)
+        {
+            if (names.add(entry.getClassName()))
+            {
+                pending.put(entry.getClassName(), entry);
+            }
+        }
     }
 
     /**
@@ -65,6 +103,7 @@ class ClassSet implements Iterable<Class<?>>, ClassRepository
             clsSet.addAll(classes);
             sortedClasses.addAll(clsSet);
             ClassUtils.sort(sortedClasses);
+            clsSet.forEach(cls -> names.add(cls.getName()));
         }
     }
 
@@ -92,12 +131,13 @@ class ClassSet implements Iterable<Class<?>>, ClassRepository
             {
                 if (clst != null && !clst.isEmpty())
                 {
-                    clsSet.addAll(clst.clsSet);
+                    clst.forEach(clsSet::add);
                 }
             }
         }
         sortedClasses.addAll(clsSet);
         ClassUtils.sort(sortedClasses);
+        clsSet.forEach(cls -> names.add(cls.getName()));
     }
 
     /**
@@ -109,7 +149,7 @@ class ClassSet implements Iterable<Class<?>>, ClassRepository
      */
     public boolean contains(Class cls)
     {
-        return clsSet.contains(cls);
+        return names.contains(cls.getName());
     }
 
     /**
@@ -119,7 +159,7 @@ class ClassSet implements Iterable<Class<?>>, ClassRepository
      */
     public boolean isEmpty()
     {
-        return clsSet.isEmpty();
+        return names.isEmpty();
     }
 
     /**
@@ -130,7 +170,181 @@ class ClassSet implements Iterable<Class<?>>, ClassRepository
     @Override
     public Iterator<Class<?>> iterator()
     {
-        return sortedClasses.iterator();
+        return loadAll().iterator();
+    }
+
+    /**
+     * The names of all the classes in this set, loaded or not.
+     *
+     * @return An unmodifiable set with the class names.
+     */
+    public Set<String> getNames()
+    {
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * The classes of this set that where loaded when the set was created,
+     * because they are not in the components index.
+     *
+     * @return The loaded classes.
+     */
+    public synchronized List<Class<?>> getLoadedClasses()
+    {
+        return new ArrayList<>(clsSet);
+    }
+
+    /**
+     * The components from the index whose classes are not loaded yet.
+     *
+     * @return The pending components.
+     */
+    public synchronized List<ComponentIndex.Entry> getPendingEntries()
+    {
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Finds the components of this set that must be created with the context,
+     * loading them if they are in the index.
+     *
+     * @return The classes of the components with instantiate = true.
+     */
+    public synchronized List<Class<?>> findEagerComponents()
+    {
+        Set<Class<?>> result = new LinkedHashSet<>();
+        for (ComponentIndex.Entry entry : new ArrayList<>(pending.values()))
+        {
+            if (entry.isEager())
+            {
+                Class<?> cls = load(entry);
+                if (cls != null)
+                {
+                    result.add(cls);
+                }
+            }
+        }
+        for (Class<?> cls : clsSet)
+        {
+            Component annot = cls.getAnnotation(Component.class);
+            if (annot != null && annot.instantiate())
+            {
+                result.add(cls);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Finds the components of this set that have Scheduled methods, loading
+     * them if they are in the index.
+     *
+     * @return The classes of the components with Scheduled methods.
+     */
+    public synchronized List<Class<?>> findScheduledComponents()
+    {
+        Set<Class<?>> result = new LinkedHashSet<>();
+        for (ComponentIndex.Entry entry : new ArrayList<>(pending.values()))
+        {
+            if (entry.isScheduled())
+            {
+                Class<?> cls = load(entry);
+                if (cls != null)
+                {
+                    result.add(cls);
+                }
+            }
+        }
+        for (Class<?> cls : clsSet)
+        {
+            if (cls.getAnnotation(Component.class) != null && !findScheduledMethods(cls).isEmpty())
+            {
+                result.add(cls);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Finds the methods annotated with Scheduled in the given class and its
+     * super classes.
+     *
+     * @param cls The class to look for.
+     *
+     * @return The Scheduled methods of the class.
+     */
+    public static List<Method> findScheduledMethods(Class<?> cls)
+    {
+        List<Method> result = new ArrayList<>();
+        Class<?> current = cls;
+        while (current != null && current != Object.class)
+        {
+            for (Method method : current.getDeclaredMethods())
+            {
+                if (method.getAnnotation(Scheduled.class) != null)
+                {
+                    result.add(method);
+                }
+            }
+            current = current.getSuperclass();
+        }
+        return result;
+    }
+
+    /**
+     * Loads the class of a component from the index.
+     *
+     * @param entry The component to load.
+     *
+     * @return The class of the component, or null if it cannot be loaded.
+     */
+    public synchronized Class<?> load(ComponentIndex.Entry entry)
+    {
+        if (pending.remove(entry.getClassName()) == null)
+        {
+            return findLoaded(entry.getClassName());
+        }
+        long start = StartupProfiler.start();
+        try
+        {
+            Class<?> cls = Class.forName(entry.getClassName());
+            StartupProfiler.record(entry.getClassName(), StartupProfiler.CLASS_LOADING, start);
+            clsSet.add(cls);
+            sortedClasses = null;
+            return cls;
+        }
+        catch (ClassNotFoundException ex)
+        {
+            LOG.log(Level.SEVERE, null, ex);
+        }
+        return null;
+    }
+
+    private Class<?> findLoaded(String name)
+    {
+        for (Class<?> cls : clsSet)
+        {
+            if (cls.getName().equals(name))
+            {
+                return cls;
+            }
+        }
+        return null;
+    }
+
+    private synchronized List<Class<?>> loadAll()
+    {
+        for (ComponentIndex.Entry entry : new ArrayList<>(pending.values()))
+        {
+            load(entry);
+        }
+        if (sortedClasses == null)
+        {
+            List<Class<?>> sorted = new ArrayList<>(clsSet);
+            ClassUtils.sort(sorted);
+            sortedClasses = sorted;
+        }
+        return sortedClasses;
     }
 
     /**
@@ -152,7 +366,7 @@ class ClassSet implements Iterable<Class<?>>, ClassRepository
      */
     public int size()
     {
-        return clsSet.size();
+        return loadAll().size();
     }
 
     /**
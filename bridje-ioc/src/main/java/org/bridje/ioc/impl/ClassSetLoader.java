@@ -34,7 +34,7 @@ class ClassSetLoader
 {
     private static final Logger LOG = Logger.getLogger(ClassSetLoader.class.getName());
 
-    private static ClassSetLoader INSTANCE;
+    private static final ClassSetLoader INSTANCE = new ClassSetLoader();
 
     /**
      * All ClassSets available by scope.
@@ -42,16 +42,13 @@ class ClassSetLoader
     private final Map<Class<?>, ClassSet> clsCache = new ConcurrentHashMap<>();
 
     /**
-     * Al the components declared in the components.properties files.
+     * Al the components declared in the components index and
+     * components.properties files.
      */
-    private Map<String, String> propFilesCache;
+    private Map<String, ComponentIndex.Entry> entriesCache;
 
     public static ClassSetLoader instance()
     {
-        if (INSTANCE == null)
-        {
-            INSTANCE = new ClassSetLoader();
-        }
         return INSTANCE;
     }
 
@@ -88,20 +85,30 @@ class ClassSetLoader
     private ClassSet loadFromClassPath(Class<?> scope) throws IOException
     {
         Set<Class<?>> clsList = new HashSet<>();
+        List<ComponentIndex.Entry> indexed = new ArrayList<>();
         //An instance of IocContextImpl is always a component in every scope.
         clsList.add(ContextImpl.class);
         clsList.add(scope);
-        if (propFilesCache == null)
+        if (entriesCache == null)
         {
-            propFilesCache = loadPropFilesCache();
+            entriesCache = loadEntriesCache();
         }
-        propFilesCache.forEach((clsName, compScope) ->
+        entriesCache.forEach((clsName, entry) ->
         {
+            String compScope = entry.getScope();
             if (compScope != null && scope.getName().equalsIgnoreCase(compScope))
             {
+                if (entry.isIndexed())
+                {
+                    //loaded when one of its services is needed.
+                    indexed.add(entry);
+                    return;
+                }
                 try
                 {
+                    long start = StartupProfiler.start();
                     clsList.add(Class.forName(clsName));
+                    StartupProfiler.record(clsName, StartupProfiler.CLASS_LOADING, start);
                 }
                 catch (ClassNotFoundException ex)
                 {
@@ -113,43 +120,98 @@ class ClassSetLoader
         {
             return null;
         }
-        return new ClassSet(clsList);
+        return new ClassSet(clsList, indexed);
     }
 
     /**
-     * Loads all of the components.properties files in the class path.
+     * Loads all of the components indexes and components.properties files in
+     * the class path. The components.properties files written next to an
+     * index are skipped, and the other components files next to an index are
+     * listed in it, so only the folders and jars without an index are
+     * scanned.
      *
-     * @return A map containing the combination of all the components.properties
-     *         files present in the class path.
+     * @return A map containing the combination of all the components declared
+     *         in the class path.
      *
      * @throws IOException If a file cannot be read.
      */
-    private Map<String, String> loadPropFilesCache() throws IOException
+    private Map<String, ComponentIndex.Entry> loadEntriesCache() throws IOException
     {
-        Map<String, String> result = new HashMap<>();
-        Set<String> files = findComponentsFiles();
+        Map<String, ComponentIndex.Entry> result = new HashMap<>();
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        Set<String> indexes = new HashSet<>();
+        Set<String> files = new HashSet<>();
+        Enumeration<URL> idxResources = loader.getResources(ComponentIndex.INDEX_RESOURCE_FILE);
+        while (idxResources.hasMoreElements())
+        {
+            URL nextElement = idxResources.nextElement();
+            long start = StartupProfiler.start();
+            try (InputStream is = nextElement.openStream())
+            {
+                for (ComponentIndex.Entry entry : ComponentIndex.read(is, files))
+                {
+                    result.put(entry.getClassName(), entry);
+                }
+                indexes.add(nextElement.toString());
+            }
+            catch (IOException e)
+            {
+                LOG.log(Level.WARNING, String.format("Could not read the components index %s, using the properties file instead.", nextElement), e);
+            }
+            StartupProfiler.recordScan(nextElement, start);
+        }
+        files.addAll(findComponentsFiles(indexes));
         for (String file : files)
         {
-            Enumeration<URL> resources = Thread.currentThread().getContextClassLoader().getResources(file);
+            Enumeration<URL> resources = loader.getResources(file);
             while (resources.hasMoreElements())
             {
                 URL nextElement = resources.nextElement();
+                if (file.equals(ComponentProcessor.COMPONENTS_RESOURCE_FILE)
+                        && indexes.contains(nextElement.toString().replace(file, ComponentIndex.INDEX_RESOURCE_FILE)))
+                {
+                    continue;
+                }
+                long start = StartupProfiler.start();
                 Properties prop = new Properties();
                 try (InputStream is = nextElement.openStream())
                 {
                     prop.load(is);
                 }
+                StartupProfiler.recordScan(nextElement, start);
                 prop.forEach((key, value) ->
                 {
                     String clsName = (String) key;
                     String compScope = (String) value;
-                    result.put(clsName, compScope);
+                    result.putIfAbsent(clsName, new ComponentIndex.Entry(clsName, compScope, Integer.MAX_VALUE, false, false, null));
                 });
             }
         }
         return result;
     }
 
+    /**
+     * Finds the names of all the scopes declared by the components in the
+     * class path.
+     *
+     * @return The names of the scope classes.
+     *
+     * @throws IOException If the components files cannot be read.
+     */
+    public synchronized Set<String> findScopeNames() throws IOException
+    {
+        if (entriesCache == null)
+        {
+            entriesCache = loadEntriesCache();
+        }
+        Set<String> result = new TreeSet<>();
+        entriesCache.values().stream()
+                .map(ComponentIndex.Entry::getScope)
+                .filter(Objects::nonNull)
+                .forEach(result::add);
+        return result;
+    }
+
     private synchronized ClassSet loadScope(Class<?> scope)
     {
         try
@@ -172,7 +234,15 @@ class ClassSetLoader
         return null;
     }
 
-    private Set<String> findComponentsFiles()
+    /**
+     * Scans the BRIDJE-INF folders and jars that do not have a components
+     * index for the components files.
+     *
+     * @param indexes The URLs of the indexes that where read.
+     *
+     * @return The names of the components files found.
+     */
+    private Set<String> findComponentsFiles(Set<String> indexes)
     {
         Set<String> result = new HashSet<>();
         try
@@ -181,8 +251,9 @@ class ClassSetLoader
             while (resources.hasMoreElements())
             {
                 URL dirURL = resources.nextElement();
-                if (dirURL != null)
+                if (dirURL != null && !indexes.contains(dirURL + ComponentIndex.INDEX_RESOURCE_FILE.substring("BRIDJE-INF/".length())))
                 {
+                    long start = StartupProfiler.start();
                     if (dirURL.getProtocol().equals("file"))
                     {
                         findComponentsFilesFromDir(dirURL, result);
@@ -191,6 +262,7 @@ class ClassSetLoader
                     {
                         findComponentsFilesFromJar(dirURL, result);
                     }
+                    StartupProfiler.recordScan(dirURL, start);
                 }
             }
         }
@@ -231,9 +303,8 @@ class ClassSetLoader
          * A JAR path
          */
         String jarPath = dirURL.getPath().substring(5, dirURL.getPath().indexOf("!")); //strip out only the JAR file
-        try
+        try (JarFile jar = new JarFile(URLDecoder.decode(jarPath, "UTF-8")))
         {
-            JarFile jar = new JarFile(URLDecoder.decode(jarPath, "UTF-8"));
             Enumeration<JarEntry> entries = jar.entries(); //gives ALL entries in jar
             while (entries.hasMoreElements())
             {
@@ -528,7 +528,8 @@ public class ClassUtils
     }
 
     /**
-     * Sorts a list of components by priority.
+     * Sorts a list of components by priority, and by class name the ones with
+     * the same priority.
      *
      * @param value The list of classes to sort.
      */
@@ -539,7 +540,12 @@ public class ClassUtils
         {
             int v1 = ClassUtils.findPriority(c1);
             int v2 = ClassUtils.findPriority(c2);
-            return Integer.compare(v1, v2);
+            int result = Integer.compare(v1, v2);
+            if (result == 0)
+            {
+                result = c1.getName().compareTo(c2.getName());
+            }
+            return result;
         });
     }
 
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.ioc.impl;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import org.bridje.ioc.Application;
+import org.bridje.ioc.Inject;
+import org.bridje.ioc.IocContext;
+import org.bridje.ioc.Provider;
+
+/**
+ * Checks the dependencies of the components of every scope at build time,
+ * reporting the ones that no component provides and the ones provided by
+ * more than one component with the same priority. It is used by the ioc-graph
+ * goal of the bridje-maven-plugin, the contexts do not use it at runtime.
+ */
+public final class ComponentGraph
+{
+    private ComponentGraph()
+    {
+    }
+
+    /**
+     * Resolves the components of all the scopes in the class path of the
+     * current thread and checks the dependencies of each of them.
+     *
+     * @param errors   The list to add the unsatisfied dependencies.
+     * @param warnings The list to add the ambiguous dependencies.
+     *
+     * @throws IOException If the components cannot be read.
+     */
+    public static void validate(List<String> errors, List<String> warnings) throws IOException
+    {
+        ServiceMap appServices = ServiceMap.findByScope(Application.class);
+        for (String scopeName : ClassSetLoader.instance().findScopeNames())
+        {
+            Class<?> scope;
+            try
+            {
+                scope = Class.forName(scopeName, true, Thread.currentThread().getContextClassLoader());
+            }
+            catch (ClassNotFoundException e)
+            {
+                errors.add(String.format("The scope class %s cannot be found.", scopeName));
+                continue;
+            }
+            ClassSet classSet = ClassSet.findByScope(scope);
+            ServiceMap services = ServiceMap.findByScope(scope);
+            if (classSet == null || services == null)
+            {
+                continue;
+            }
+            for (Class<?> component : classSet)
+            {
+                Class<?> current = component;
+                while (current != null && current != Object.class)
+                {
+                    for (Field field : ClassCache.createInjectFields(current))
+                    {
+                        if (field.getAnnotation(Inject.class) != null)
+                        {
+                            check(scope, services, scope == Application.class ? null : appServices, component, field, errors, warnings);
+                        }
+                    }
+                    current = current.getSuperclass();
+                }
+            }
+        }
+    }
+
+    private static void check(Class<?> scope, ServiceMap services, ServiceMap parentServices, Class<?> component, Field field, List<String> errors, List<String> warnings)
+    {
+        Type service = field.getGenericType();
+        if (ClassUtils.rawClass(service) == Provider.class)
+        {
+            if (!(service instanceof ParameterizedType))
+            {
+                return;
+            }
+            service = ((ParameterizedType) service).getActualTypeArguments()[0];
+        }
+        if (ClassUtils.rawClass(service) == IocContext.class || ClassUtils.isMultiple(service))
+        {
+            return;
+        }
+        ServiceMap provider = services;
+        List<Class<?>> all = services.findAll(service);
+        if ((all == null || all.isEmpty()) && parentServices != null)
+        {
+            provider = parentServices;
+            all = parentServices.findAll(service);
+        }
+        String target = String.format("%s.%s of %s (%s)", field.getDeclaringClass().getName(), field.getName(), component.getName(), scope.getSimpleName());
+        if (all == null || all.isEmpty())
+        {
+            errors.add(String.format("Unsatisfied dependency %s, no component provides %s.", target, service.getTypeName()));
+        }
+        else if (all.size() > 1 && provider.findPriority(all.get(0)) == provider.findPriority(all.get(1)))
+        {
+            warnings.add(String.format("Ambiguous dependency %s, %s and %s provide %s with the same priority.", target, all.get(0).getName(), all.get(1).getName(), service.getTypeName()));
+        }
+    }
+}
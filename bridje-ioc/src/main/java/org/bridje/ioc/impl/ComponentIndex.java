@@ -0,0 +1,258 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.ioc.impl;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The binary index of components written by the ComponentProcessor. It holds
+ * the class name, scope, priority, the instantiate and scheduled flags and the
+ * names of the services of each component, so the classes can be loaded only
+ * when they are needed.
+ * <p>
+ * The file starts with a magic number and a version, followed by one record
+ * for each component. The last record has an empty class name and holds the
+ * names of the other components files written next to the index, so the
+ * class path does not need to be scanned for them.
+ */
+final class ComponentIndex
+{
+    /**
+     * IOC components index file.
+     */
+    public static final String INDEX_RESOURCE_FILE = "BRIDJE-INF/ioc/ioc-components.idx";
+
+    private static final int MAGIC = 0x42524a49;
+
+    private static final short VERSION = 4;
+
+    private static final int EAGER = 1;
+
+    private static final int SCHEDULED = 2;
+
+    private ComponentIndex()
+    {
+    }
+
+    /**
+     * Writes the header of the index.
+     *
+     * @param out The output of the index file.
+     *
+     * @throws IOException If the header cannot be written.
+     */
+    public static void writeHeader(DataOutputStream out) throws IOException
+    {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+    }
+
+    /**
+     * Writes the record for a component.
+     *
+     * @param out   The output of the index file.
+     * @param entry The component to write.
+     *
+     * @throws IOException If the record cannot be written.
+     */
+    public static void write(DataOutputStream out, Entry entry) throws IOException
+    {
+        out.writeUTF(entry.getClassName());
+        out.writeUTF(entry.getScope());
+        out.writeInt(entry.getPriority());
+        out.writeByte((entry.isEager() ? EAGER : 0) | (entry.isScheduled() ? SCHEDULED : 0));
+        out.writeShort(entry.getServices().length);
+        for (String service : entry.getServices())
+        {
+            out.writeUTF(service);
+        }
+    }
+
+    /**
+     * Writes the last record of the index with the names of the other
+     * components files.
+     *
+     * @param out   The output of the index file.
+     * @param files The names of the components files.
+     *
+     * @throws IOException If the record cannot be written.
+     */
+    public static void writeFiles(DataOutputStream out, Collection<String> files) throws IOException
+    {
+        out.writeUTF("");
+        out.writeShort(files.size());
+        for (String file : files)
+        {
+            out.writeUTF(file);
+        }
+    }
+
+    /**
+     * Reads all the records of an index file.
+     *
+     * @param is The input of the index file.
+     *
+     * @return The components in the index.
+     *
+     * @throws IOException If the file cannot be read or is not an index.
+     */
+    public static List<Entry> read(InputStream is) throws IOException
+    {
+        return read(is, new ArrayList<>());
+    }
+
+    /**
+     * Reads all the records of an index file.
+     *
+     * @param is    The input of the index file.
+     * @param files The collection to add the names of the other components
+     *              files written next to the index.
+     *
+     * @return The components in the index.
+     *
+     * @throws IOException If the file cannot be read or is not an index.
+     */
+    public static List<Entry> read(InputStream is, Collection<String> files) throws IOException
+    {
+        List<Entry> result = new ArrayList<>();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        if (in.readInt() != MAGIC || in.readShort() != VERSION)
+        {
+            throw new IOException("Invalid components index.");
+        }
+        while (true)
+        {
+            String className;
+            try
+            {
+                className = in.readUTF();
+            }
+            catch (EOFException e)
+            {
+                return result;
+            }
+            if (className.isEmpty())
+            {
+                int count = in.readShort();
+                for (int i = 0; i < count; i++)
+                {
+                    files.add(in.readUTF());
+                }
+                return result;
+            }
+            String scope = in.readUTF();
+            int priority = in.readInt();
+            int flags = in.readByte();
+            String[] services = new String[in.readShort()];
+            for (int i = 0; i < services.length; i++)
+            {
+                services[i] = in.readUTF();
+            }
+            result.add(new Entry(className, scope, priority, (flags & EAGER) != 0, (flags & SCHEDULED) != 0, services));
+        }
+    }
+
+    /**
+     * A component declared in an index or components file.
+     */
+    public static final class Entry
+    {
+        private final String className;
+
+        private final String scope;
+
+        private final int priority;
+
+        private final boolean eager;
+
+        private final boolean scheduled;
+
+        private final String[] services;
+
+        /**
+         * Creates a new entry.
+         *
+         * @param className The binary name of the component class.
+         * @param scope     The name of the scope class.
+         * @param priority  The priority of the component.
+         * @param eager     If the component must be created with the context.
+         * @param scheduled If the component has Scheduled methods.
+         * @param services  The names of the classes and interfaces the
+         *                  component extends or implements, null if they
+         *                  are unknown and the class must be loaded to know
+         *                  them.
+         */
+        public Entry(String className, String scope, int priority, boolean eager, boolean scheduled, String[] services)
+        {
+            this.className = className;
+            this.scope = scope;
+            this.priority = priority;
+            this.eager = eager;
+            this.scheduled = scheduled;
+            this.services = services;
+        }
+
+        public String getClassName()
+        {
+            return className;
+        }
+
+        public String getScope()
+        {
+            return scope;
+        }
+
+        public int getPriority()
+        {
+            return priority;
+        }
+
+        public boolean isEager()
+        {
+            return eager;
+        }
+
+        public boolean isScheduled()
+        {
+            return scheduled;
+        }
+
+        public String[] getServices()
+        {
+            return services;
+        }
+
+        /**
+         * Determines if the services of the component are known without
+         * loading its class.
+         *
+         * @return true the component was declared in an index.
+         */
+        public boolean isIndexed()
+        {
+            return services != null;
+        }
+    }
+}
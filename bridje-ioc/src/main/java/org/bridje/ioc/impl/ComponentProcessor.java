@@ -16,14 +16,39 @@
 
 package org.bridje.ioc.impl;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
-import javax.lang.model.element.Element;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
 import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
 import org.bridje.ioc.ClassListPropertyFile;
 import org.bridje.ioc.Component;
+import org.bridje.ioc.Inject;
+import org.bridje.ioc.InjectNext;
+import org.bridje.ioc.Lazy;
+import org.bridje.ioc.PostConstruct;
+import org.bridje.ioc.Priority;
+import org.bridje.ioc.schedule.Scheduled;
 
 /**
  * Annotations processor for the {@link Component} annotation.
@@ -37,6 +62,62 @@ public class ComponentProcessor extends ClassListPropertyFile
      */
     public static final String COMPONENTS_RESOURCE_FILE = "BRIDJE-INF/ioc/ioc-components.properties";
 
+    /**
+     * The suffix for the name of the generated ComponentFactory of each
+     * component.
+     */
+    public static final String FACTORY_SUFFIX = "_IocFactory";
+
+    /**
+     * The suffix for the name of the generated proxy of each Lazy field, the
+     * name of the proxy is the name of the class that declares the field,
+     * followed by the name of the field and this suffix.
+     */
+    public static final String LAZY_SUFFIX = "_IocLazy";
+
+    private final Set<String> generatedProxies = new HashSet<>();
+
+    private DataOutputStream indexOut;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv)
+    {
+        super.init(processingEnv);
+        try
+        {
+            FileObject fobj = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.INDEX_RESOURCE_FILE);
+            indexOut = new DataOutputStream(fobj.openOutputStream());
+            ComponentIndex.writeHeader(indexOut);
+            indexOut.flush();
+        }
+        catch (IOException e)
+        {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+    {
+        boolean result = super.process(annotations, roundEnv);
+        if(roundEnv.processingOver() && indexOut != null)
+        {
+            try
+            {
+                Set<String> files = findFileNames();
+                files.remove(getFileName());
+                ComponentIndex.writeFiles(indexOut, files);
+                indexOut.close();
+            }
+            catch (IOException e)
+            {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage());
+            }
+            indexOut = null;
+        }
+        return result;
+    }
+
     @Override
     public String getFileName()
     {
@@ -59,6 +140,381 @@ public class ComponentProcessor extends ClassListPropertyFile
             scope = e.getTypeMirror().toString();
         }
         appendProperty(clsName, scope);
+        appendIndex((TypeElement)element, scope);
+        generateFactory((TypeElement)element);
+        generateLazyProxies((TypeElement)element);
+    }
+
+    /**
+     * Writes the component to the binary index with its priority and the
+     * names of all the classes and interfaces it extends or implements.
+     */
+    private void appendIndex(TypeElement element, String scope) throws IOException
+    {
+        if(indexOut == null)
+        {
+            return;
+        }
+        Set<String> services = new LinkedHashSet<>();
+        fillServices(element, services);
+        String clsName = processingEnv.getElementUtils().getBinaryName(element).toString();
+        Component annot = element.getAnnotation(Component.class);
+        ComponentIndex.write(indexOut, new ComponentIndex.Entry(clsName, scope, findPriority(element), annot.instantiate(), hasScheduledMethods(element), services.toArray(new String[services.size()])));
+        indexOut.flush();
+    }
+
+    private boolean hasScheduledMethods(TypeElement element)
+    {
+        TypeElement current = element;
+        while(current != null && !current.getQualifiedName().contentEquals("java.lang.Object"))
+        {
+            for (Element member : current.getEnclosedElements())
+            {
+                if(member.getKind() == ElementKind.METHOD && member.getAnnotation(Scheduled.class) != null)
+                {
+                    return true;
+                }
+            }
+            TypeMirror superCls = current.getSuperclass();
+            current = superCls.getKind() == TypeKind.DECLARED
+                    ? (TypeElement)((DeclaredType)superCls).asElement()
+                    : null;
+        }
+        return false;
+    }
+
+    private void fillServices(TypeElement element, Set<String> services)
+    {
+        if(element.getQualifiedName().contentEquals("java.lang.Object")
+                || !services.add(processingEnv.getElementUtils().getBinaryName(element).toString()))
+        {
+            return;
+        }
+        for (TypeMirror ifc : element.getInterfaces())
+        {
+            fillServices((TypeElement)((DeclaredType)ifc).asElement(), services);
+        }
+        TypeMirror superCls = element.getSuperclass();
+        if(superCls.getKind() == TypeKind.DECLARED)
+        {
+            fillServices((TypeElement)((DeclaredType)superCls).asElement(), services);
+        }
+    }
+
+    /**
+     * Writes the source of the ComponentFactory for the given component, the
+     * factory is not generated if the component cannot be created from its
+     * package. The factory only handles the members it can access from the
+     * package of the component, if some field or PostConstruct method is
+     * private, final or declared in a super class of another package, the
+     * factory leaves all the fields or all the methods to the reflection
+     * based instanciator.
+     */
+    private void generateFactory(TypeElement element) throws IOException
+    {
+        if(!canCreate(element))
+        {
+            return;
+        }
+        String pkg = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+        String clsName = element.getQualifiedName().toString();
+        String factoryName = element.getSimpleName() + FACTORY_SUFFIX;
+        List<String> injects = new ArrayList<>();
+        List<String> postConstructs = new ArrayList<>();
+        boolean canInject = true;
+        boolean canPostConstruct = true;
+        TypeElement current = element;
+        while(current != null && !current.getQualifiedName().contentEquals("java.lang.Object"))
+        {
+            String target = current == element ? "instance" : "((" + current.getQualifiedName() + ")instance)";
+            boolean samePkg = processingEnv.getElementUtils().getPackageOf(current).getQualifiedName().contentEquals(pkg);
+            for (Element member : current.getEnclosedElements())
+            {
+                if(member.getKind() == ElementKind.FIELD)
+                {
+                    boolean inject = member.getAnnotation(Inject.class) != null;
+                    boolean injectNext = member.getAnnotation(InjectNext.class) != null;
+                    if(!inject && !injectNext)
+                    {
+                        continue;
+                    }
+                    String type = findTypeLiteral(member.asType());
+                    //lazy and provider fields are left to the instanciator.
+                    if(member.getAnnotation(Lazy.class) != null || isProvider(member.asType()))
+                    {
+                        type = null;
+                    }
+                    if(!samePkg || type == null || member.getModifiers().contains(Modifier.PRIVATE)
+                            || member.getModifiers().contains(Modifier.FINAL))
+                    {
+                        canInject = false;
+                        continue;
+                    }
+                    String field = target + "." + member.getSimpleName();
+                    if(inject)
+                    {
+                        injects.add(field + " = (" + type + ")context.findGeneric(" + type + ".class);");
+                    }
+                    if(injectNext)
+                    {
+                        injects.add(field + " = (" + type + ")context.findNextGeneric(" + type + ".class, " + findPriority(current) + ");");
+                    }
+                }
+                else if(member.getKind() == ElementKind.METHOD && member.getAnnotation(PostConstruct.class) != null)
+                {
+                    ExecutableElement method = (ExecutableElement)member;
+                    if(!samePkg || !method.getParameters().isEmpty() || method.getModifiers().contains(Modifier.PRIVATE)
+                            || method.getModifiers().contains(Modifier.STATIC))
+                    {
+                        canPostConstruct = false;
+                        continue;
+                    }
+                    postConstructs.add(target + "." + method.getSimpleName() + "();");
+                }
+            }
+            TypeMirror superCls = current.getSuperclass();
+            current = superCls.getKind() == TypeKind.DECLARED ? (TypeElement)((DeclaredType)superCls).asElement() : null;
+        }
+
+        JavaFileObject fobj = processingEnv.getFiler().createSourceFile(pkg.isEmpty() ? factoryName : pkg + "." + factoryName, element);
+        try(Writer writer = fobj.openWriter())
+        {
+            if(!pkg.isEmpty())
+            {
+                writer.append("package ").append(pkg).append(";\n\n");
+            }
+            writer.append("/**\n * Generated ComponentFactory for the ").append(clsName).append(" component.\n */\n");
+            writer.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+            writer.append("final class ").append(factoryName).append(" implements org.bridje.ioc.ComponentFactory<").append(clsName).append(">\n{\n");
+            writer.append("    private static final java.util.logging.Logger LOG = java.util.logging.Logger.getLogger(").append(clsName).append(".class.getName());\n\n");
+            writer.append("    @Override\n    public ").append(clsName).append(" create()\n    {\n");
+            writer.append("        return new ").append(clsName).append("();\n    }\n\n");
+            writer.append("    @Override\n    public boolean inject(").append(clsName).append(" instance, org.bridje.ioc.IocContext<?> context)\n    {\n");
+            if(canInject)
+            {
+                for (String inject : injects)
+                {
+                    writer.append("        ").append(inject).append("\n");
+                }
+            }
+            writer.append("        return ").append(String.valueOf(canInject)).append(";\n    }\n\n");
+            writer.append("    @Override\n    public boolean postConstruct(").append(clsName).append(" instance)\n    {\n");
+            if(canPostConstruct)
+            {
+                for (String postConstruct : postConstructs)
+                {
+                    writer.append("        try\n        {\n            ").append(postConstruct).append("\n        }\n");
+                    writer.append("        catch (Exception e)\n        {\n");
+                    writer.append("            LOG.log(java.util.logging.Level.SEVERE, e.getMessage(), e);\n        }\n");
+                }
+            }
+            writer.append("        return ").append(String.valueOf(canPostConstruct)).append(";\n    }\n}\n");
+        }
+    }
+
+    private boolean canCreate(TypeElement element)
+    {
+        Set<Modifier> modifiers = element.getModifiers();
+        if(element.getNestingKind() != NestingKind.TOP_LEVEL
+                || modifiers.contains(Modifier.ABSTRACT)
+                || modifiers.contains(Modifier.PRIVATE))
+        {
+            return false;
+        }
+        for (Element member : element.getEnclosedElements())
+        {
+            if(member.getKind() == ElementKind.CONSTRUCTOR
+                    && ((ExecutableElement)member).getParameters().isEmpty())
+            {
+                return !member.getModifiers().contains(Modifier.PRIVATE);
+            }
+        }
+        return false;
+    }
+
+    private String findTypeLiteral(TypeMirror type)
+    {
+        if(type.getKind() == TypeKind.ARRAY)
+        {
+            String component = findTypeLiteral(((ArrayType)type).getComponentType());
+            return component == null ? null : component + "[]";
+        }
+        if(type.getKind() != TypeKind.DECLARED)
+        {
+            return null;
+        }
+        DeclaredType declared = (DeclaredType)type;
+        if(!declared.getTypeArguments().isEmpty()
+                || declared.asElement().getModifiers().contains(Modifier.PRIVATE))
+        {
+            //parameterized types need the generic type of the field.
+            return null;
+        }
+        return ((TypeElement)declared.asElement()).getQualifiedName().toString();
+    }
+
+    private boolean isProvider(TypeMirror type)
+    {
+        return type.getKind() == TypeKind.DECLARED
+                && ((TypeElement)((DeclaredType)type).asElement()).getQualifiedName().contentEquals("org.bridje.ioc.Provider");
+    }
+
+    /**
+     * Writes a proxy for each Lazy field of the component and its super
+     * classes whose type is a public interface. The proxy implements the
+     * interface calling the component returned by a Provider, including
+     * equals, hashCode and toString.
+     */
+    private void generateLazyProxies(TypeElement element) throws IOException
+    {
+        TypeElement current = element;
+        while(current != null && !current.getQualifiedName().contentEquals("java.lang.Object"))
+        {
+            for (Element member : current.getEnclosedElements())
+            {
+                if(member.getKind() == ElementKind.FIELD
+                        && member.getAnnotation(Lazy.class) != null
+                        && member.asType().getKind() == TypeKind.DECLARED
+                        && ((DeclaredType)member.asType()).asElement().getKind() == ElementKind.INTERFACE
+                        && ((DeclaredType)member.asType()).asElement().getModifiers().contains(Modifier.PUBLIC)
+                        && current.getNestingKind() == NestingKind.TOP_LEVEL)
+                {
+                    generateLazyProxy(current, (VariableElement)member);
+                }
+            }
+            TypeMirror superCls = current.getSuperclass();
+            current = superCls.getKind() == TypeKind.DECLARED ? (TypeElement)((DeclaredType)superCls).asElement() : null;
+        }
+    }
+
+    private void generateLazyProxy(TypeElement owner, VariableElement field) throws IOException
+    {
+        String pkg = processingEnv.getElementUtils().getPackageOf(owner).getQualifiedName().toString();
+        String proxyName = owner.getSimpleName() + "_" + field.getSimpleName() + LAZY_SUFFIX;
+        String fullName = pkg.isEmpty() ? proxyName : pkg + "." + proxyName;
+        if(!generatedProxies.add(fullName))
+        {
+            return;
+        }
+        DeclaredType ifcType = (DeclaredType)field.asType();
+        String ifcName = ifcType.toString();
+        JavaFileObject fobj = processingEnv.getFiler().createSourceFile(fullName, owner);
+        try(Writer writer = fobj.openWriter())
+        {
+            if(!pkg.isEmpty())
+            {
+                writer.append("package ").append(pkg).append(";\n\n");
+            }
+            writer.append("/**\n * Generated lazy proxy for the field ").append(field.getSimpleName())
+                    .append(" of the ").append(owner.getQualifiedName()).append(" class.\n */\n");
+            writer.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+            writer.append("final class ").append(proxyName).append(" implements ").append(ifcName).append("\n{\n");
+            writer.append("    private final org.bridje.ioc.Provider<").append(ifcName).append("> provider;\n\n");
+            writer.append("    ").append(proxyName).append("(org.bridje.ioc.Provider provider)\n    {\n");
+            writer.append("        this.provider = provider;\n    }\n\n");
+            writer.append("    private ").append(ifcName).append(" target()\n    {\n");
+            writer.append("        ").append(ifcName).append(" result = provider.get();\n");
+            writer.append("        if(result == null)\n        {\n");
+            writer.append("            throw new IllegalStateException(\"No component provides the service ").append(ifcName)
+                    .append(" of the lazy field ").append(field.getSimpleName()).append(" of ").append(owner.getQualifiedName()).append(".\");\n");
+            writer.append("        }\n        return result;\n    }\n");
+            for (Element member : processingEnv.getElementUtils().getAllMembers((TypeElement)ifcType.asElement()))
+            {
+                if(member.getKind() != ElementKind.METHOD
+                        || member.getEnclosingElement().getKind() != ElementKind.INTERFACE
+                        || member.getModifiers().contains(Modifier.STATIC)
+                        || member.getModifiers().contains(Modifier.PRIVATE)
+                        || isObjectMethod((ExecutableElement)member))
+                {
+                    continue;
+                }
+                writeProxyMethod(writer, ifcType, (ExecutableElement)member);
+            }
+            writer.append("\n    @Override\n    public boolean equals(Object other)\n    {\n");
+            writer.append("        return other == this || target().equals(other);\n    }\n");
+            writer.append("\n    @Override\n    public int hashCode()\n    {\n");
+            writer.append("        return target().hashCode();\n    }\n");
+            writer.append("\n    @Override\n    public String toString()\n    {\n");
+            writer.append("        return target().toString();\n    }\n}\n");
+        }
+    }
+
+    private void writeProxyMethod(Writer writer, DeclaredType ifcType, ExecutableElement method) throws IOException
+    {
+        ExecutableType type = (ExecutableType)processingEnv.getTypeUtils().asMemberOf(ifcType, method);
+        writer.append("\n    @Override\n    public ");
+        if(!type.getTypeVariables().isEmpty())
+        {
+            writer.append("<");
+            for (int i = 0; i < type.getTypeVariables().size(); i++)
+            {
+                TypeVariable var = type.getTypeVariables().get(i);
+                if(i > 0) writer.append(", ");
+                writer.append(var.toString());
+                String bound = var.getUpperBound().toString();
+                if(!bound.equals("java.lang.Object"))
+                {
+                    writer.append(" extends ").append(bound.replace("&", " & "));
+                }
+            }
+            writer.append("> ");
+        }
+        writer.append(type.getReturnType().toString()).append(" ").append(method.getSimpleName()).append("(");
+        List<? extends TypeMirror> params = type.getParameterTypes();
+        StringBuilder args = new StringBuilder();
+        for (int i = 0; i < params.size(); i++)
+        {
+            if(i > 0)
+            {
+                writer.append(", ");
+                args.append(", ");
+            }
+            String paramType = params.get(i).toString();
+            if(method.isVarArgs() && i == params.size() - 1 && paramType.endsWith("[]"))
+            {
+                paramType = paramType.substring(0, paramType.length() - 2) + "...";
+            }
+            writer.append(paramType).append(" arg").append(String.valueOf(i));
+            args.append("arg").append(i);
+        }
+        writer.append(")");
+        if(!type.getThrownTypes().isEmpty())
+        {
+            writer.append(" throws ");
+            for (int i = 0; i < type.getThrownTypes().size(); i++)
+            {
+                if(i > 0) writer.append(", ");
+                writer.append(type.getThrownTypes().get(i).toString());
+            }
+        }
+        writer.append("\n    {\n        ");
+        if(type.getReturnType().getKind() != TypeKind.VOID)
+        {
+            writer.append("return ");
+        }
+        writer.append("target().").append(method.getSimpleName()).append("(").append(args).append(");\n    }\n");
+    }
+
+    /**
+     * Determines if the given method of an interface is equals, hashCode or
+     * toString, the proxy always implements them.
+     */
+    private boolean isObjectMethod(ExecutableElement method)
+    {
+        String name = method.getSimpleName().toString();
+        List<? extends VariableElement> params = method.getParameters();
+        if(params.isEmpty())
+        {
+            return name.equals("hashCode") || name.equals("toString");
+        }
+        return name.equals("equals") && params.size() == 1
+                && params.get(0).asType().toString().equals("java.lang.Object");
+    }
+
+    private int findPriority(TypeElement element)
+    {
+        Priority priority = element.getAnnotation(Priority.class);
+        return priority == null ? Integer.MAX_VALUE : priority.value();
     }
 
 }
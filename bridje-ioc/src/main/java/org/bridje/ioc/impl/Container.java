@@ -18,18 +18,48 @@ package org.bridje.ioc.impl;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * This class is resposable for holding references to the instanciated
  * components in a ioc context.
+ * <p>
+ * The container of the application context keeps the components in a
+ * concurrent map. Child contexts (like the one for each web request) keep
+ * their components in an array indexed by the position of the component in
+ * the scope, allocated the first time a component is created. Child contexts
+ * may be used by more than one thread, so the array is an
+ * AtomicReferenceArray and each slot is set only once.
+ * <p>
+ * While a component is being created its slot holds a {@link Creation}, the
+ * other threads that need the component wait until it is initialized.
  */
 class Container
 {
+    /**
+     * The instances given when the container was created, like the scope and
+     * the context.
+     */
+    private final Object[] predefined;
+
     /**
      * A map containing the class of the component and it´s instance for all
-     * instantiated components in the context.
+     * instantiated components in the context, in array mode only the
+     * instances that are not components of the scope are kept here.
+     */
+    private volatile Map<Class, Object> components;
+
+    /**
+     * The index of each component class name in the instances array, null if
+     * the container does not use an array.
      */
-    private final Map<Class, Object> components;
+    private final Map<String, Integer> indexes;
+
+    /**
+     * The instances of the components by index.
+     */
+    private volatile AtomicReferenceArray<Object> instances;
 
     /**
      * The guy responsable for instantiate a component.
@@ -45,11 +75,26 @@ class Container
      */
     public Container(Instanciator creator, Object... instances)
     {
-        this.components = new ConcurrentHashMap<>();
+        this(creator, null, instances);
+    }
+
+    /**
+     * The constuctor for a container that keeps the components in an array.
+     *
+     * @param creator   The instance of the object whos resposability will be to
+     *                  create the components.
+     * @param indexes   The index of each component name in the scope, if null the
+     *                  components will be kept in a concurrent map.
+     * @param instances The components that are already instantiated.
+     */
+    public Container(Instanciator creator, Map<String, Integer> indexes, Object... instances)
+    {
         this.instanciator = creator;
-        for (Object instance : instances)
+        this.indexes = indexes;
+        this.predefined = instances;
+        if (indexes == null)
         {
-            components.put(instance.getClass(), instance);
+            this.components = new ConcurrentHashMap<>();
         }
     }
 
@@ -62,7 +107,7 @@ class Container
      */
     public boolean contains(Class cls)
     {
-        return components.containsKey(cls);
+        return get(cls) != null;
     }
 
     /**
@@ -75,7 +120,12 @@ class Container
      */
     public <T> T get(Class<T> cls)
     {
-        return (T) components.get(cls);
+        Object current = lookup(cls);
+        if (current instanceof Creation)
+        {
+            return null;
+        }
+        return (T) current;
     }
 
     /**
@@ -90,27 +140,230 @@ class Container
      */
     public <T> T create(Class<T> cls)
     {
-        if (components.containsKey(cls))
+        Object current = lookup(cls);
+        if (current == null)
         {
-            return (T) components.get(cls);
+            Creation creation = new Creation();
+            current = putIfAbsent(cls, creation);
+            if (current == null)
+            {
+                return build(cls, creation);
+            }
         }
-        else
+        if (current instanceof Creation)
+        {
+            //another thread, or this one in a circular dependency, is
+            //creating the component.
+            return (T) ((Creation) current).await();
+        }
+        return (T) current;
+    }
+
+    private <T> T build(Class<T> cls, Creation creation)
+    {
+        T obj = null;
+        try
         {
             instanciator.invokePreCreateListener(cls);
-            T obj = instanciator.instantiate(cls);
+            long start = StartupProfiler.start();
+            obj = instanciator.instantiate(cls);
+            StartupProfiler.record(cls.getName(), StartupProfiler.CONSTRUCTION, start);
             if (obj == null)
             {
                 return null;
             }
-            components.put(cls, obj);
+            creation.instance = obj;
 
             instanciator.invokePreInitListener(cls, obj);
+            start = StartupProfiler.start();
             instanciator.injectDependencies(cls, obj);
+            StartupProfiler.record(cls.getName(), StartupProfiler.INJECTION, start);
 
             instanciator.invokePostInitListener(cls, obj);
+            start = StartupProfiler.start();
             instanciator.callPostConstruct(cls, obj);
+            StartupProfiler.record(cls.getName(), StartupProfiler.POST_CONSTRUCT, start);
             return obj;
         }
+        finally
+        {
+            //the slot is emptied if the component could not be created.
+            replace(cls, creation, obj);
+            creation.done.countDown();
+        }
+    }
+
+    private Object lookup(Class cls)
+    {
+        for (Object instance : predefined)
+        {
+            if (instance.getClass() == cls)
+            {
+                return instance;
+            }
+        }
+        if (indexes != null)
+        {
+            Integer index = indexes.get(cls.getName());
+            if (index != null)
+            {
+                AtomicReferenceArray<Object> current = instances;
+                return current == null ? null : current.get(index);
+            }
+        }
+        Map<Class, Object> current = components;
+        return current == null ? null : current.get(cls);
+    }
+
+    private Object putIfAbsent(Class cls, Object obj)
+    {
+        if (indexes != null)
+        {
+            Integer index = indexes.get(cls.getName());
+            if (index != null)
+            {
+                AtomicReferenceArray<Object> current = instancesArray();
+                if (current.compareAndSet(index, null, obj))
+                {
+                    return null;
+                }
+                return current.get(index);
+            }
+        }
+        return componentsMap().putIfAbsent(cls, obj);
     }
 
+    private void replace(Class cls, Creation creation, Object obj)
+    {
+        if (indexes != null)
+        {
+            Integer index = indexes.get(cls.getName());
+            if (index != null)
+            {
+                instances.compareAndSet(index, creation, obj);
+                return;
+            }
+        }
+        if (obj == null)
+        {
+            components.remove(cls, creation);
+        }
+        else
+        {
+            components.replace(cls, creation, obj);
+        }
+    }
+
+    private AtomicReferenceArray<Object> instancesArray()
+    {
+        AtomicReferenceArray<Object> result = instances;
+        if (result == null)
+        {
+            synchronized (this)
+            {
+                result = instances;
+                if (result == null)
+                {
+                    result = new AtomicReferenceArray<>(indexes.size());
+                    instances = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Map<Class, Object> componentsMap()
+    {
+        Map<Class, Object> result = components;
+        if (result == null)
+        {
+            synchronized (this)
+            {
+                result = components;
+                if (result == null)
+                {
+                    result = new ConcurrentHashMap<>();
+                    components = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A component that is being created by a thread. The other threads wait
+     * until it is initialized, unless they are in a circular dependency with
+     * the owner, in that case they get the instance before its initialization
+     * ends, like the owner thread itself does.
+     */
+    private static final class Creation
+    {
+        /**
+         * The creation each thread is waiting for.
+         */
+        private static final Map<Thread, Creation> WAITING = new ConcurrentHashMap<>();
+
+        private final Thread owner = Thread.currentThread();
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private volatile Object instance;
+
+        private Object await()
+        {
+            Thread current = Thread.currentThread();
+            if (owner == current)
+            {
+                return instance;
+            }
+            WAITING.put(current, this);
+            try
+            {
+                if (waitsFor(current))
+                {
+                    return instance;
+                }
+                boolean interrupted = false;
+                while (done.getCount() > 0)
+                {
+                    try
+                    {
+                        done.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted)
+                {
+                    current.interrupt();
+                }
+                return instance;
+            }
+            finally
+            {
+                WAITING.remove(current);
+            }
+        }
+
+        /**
+         * Determines if the owner of this creation is waiting, directly or
+         * through other threads, for the given thread.
+         */
+        private boolean waitsFor(Thread thread)
+        {
+            Thread next = owner;
+            for (int i = 0; next != null && i <= WAITING.size(); i++)
+            {
+                if (next == thread)
+                {
+                    return true;
+                }
+                Creation waited = WAITING.get(next);
+                next = waited == null ? null : waited.owner;
+            }
+            return false;
+        }
+    }
 }
@@ -29,6 +29,20 @@ public class ContextFactory
 {
     private static final Logger LOG = Logger.getLogger(ContextFactory.class.getName());
 
+    /**
+     * The system property with the number of threads used to create the
+     * components with instantiate = true, by default they are created by
+     * the thread that creates the context.
+     */
+    public static final String INIT_THREADS_PROPERTY = "bridje.ioc.initThreads";
+
+    /**
+     * The system property with the path of the JSON file for the startup
+     * report, if it is set the time spent creating each component of the
+     * application context is recorded and reported.
+     */
+    public static final String PROFILE_PROPERTY = "bridje.ioc.profile";
+
     /**
      * Private constructor so this object cannot be instantiated.
      */
@@ -56,4 +70,57 @@ public class ContextFactory
         return null;
     }
 
+    /**
+     * Creates the components marked with instantiate = true in the given
+     * context. The independent components are created in parallel if the
+     * bridje.ioc.initThreads system property is greater than one.
+     *
+     * @param context The application context.
+     */
+    public static void createEagerComponents(IocContext<Application> context)
+    {
+        if (context instanceof ContextImpl)
+        {
+            int threads = Integer.getInteger(INIT_THREADS_PROPERTY, 1);
+            ((ContextImpl<?>) context).createEagerComponents(threads);
+        }
+    }
+
+    /**
+     * Registers the methods annotated with Scheduled of the components of the
+     * given context in the Scheduler.
+     *
+     * @param context The application context.
+     */
+    public static void scheduleTasks(IocContext<Application> context)
+    {
+        if (context instanceof ContextImpl)
+        {
+            ((ContextImpl<?>) context).scheduleTasks();
+        }
+    }
+
+    /**
+     * Shuts down the Scheduler of the given context, so its threads do not
+     * wait for the JVM shutdown hook.
+     *
+     * @param context The application context.
+     */
+    public static void stopTasks(IocContext<Application> context)
+    {
+        if (context instanceof ContextImpl)
+        {
+            ((ContextImpl<?>) context).stopTasks();
+        }
+    }
+
+    /**
+     * Logs and writes the startup report if the
+     * bridje.ioc.profile system property is set.
+     */
+    public static void reportStartup()
+    {
+        StartupProfiler.report();
+    }
+
 }
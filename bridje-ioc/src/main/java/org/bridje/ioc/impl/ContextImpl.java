@@ -19,8 +19,11 @@ package org.bridje.ioc.impl;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.lang.reflect.Array;
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -28,6 +31,8 @@ import org.bridje.ioc.Application;
 import org.bridje.ioc.ClassRepository;
 import org.bridje.ioc.IocContext;
 import org.bridje.ioc.Scope;
+import org.bridje.ioc.schedule.Scheduled;
+import org.bridje.ioc.schedule.Scheduler;
 import static org.bridje.ioc.impl.ClassUtils.*;
 
 final class ContextImpl<S extends Scope> implements IocContext<S>
@@ -45,6 +50,18 @@ final class ContextImpl<S extends Scope> implements IocContext<S>
     private final IocContext<?> parent;
     
     private final ScopeCache cache;
+
+    /**
+     * The results of find and findGeneric by service, once a component is
+     * created its instance will not change for this context.
+     */
+    private volatile Map<Type, Object> resolved;
+
+    /**
+     * The results of findAll by service, a copy of the array is returned to
+     * the callers.
+     */
+    private volatile Map<Class<?>, Object[]> resolvedAll;
     
     protected ContextImpl(S scope) throws IOException
     {
@@ -57,16 +74,43 @@ final class ContextImpl<S extends Scope> implements IocContext<S>
         this.scope = scope;
         this.cache = GlobalCache.instance().getScope(getScopeClass());
         this.parent = parent;
-        classSet = ClassSet.findByScope(getScopeClass());
-        serviceMap = ServiceMap.findByScope(getScopeClass());
+        if(parent == null)
+        {
+            //child contexts create their maps on the first lookup.
+            resolved = new ConcurrentHashMap<>();
+            resolvedAll = new ConcurrentHashMap<>();
+        }
+        classSet = cache.getClassSet();
+        serviceMap = cache.getServiceMap();
         Instanciator creator = new Instanciator(this, serviceMap);
-        container = new Container(creator, scope, this);
+        if(parent == null)
+        {
+            container = new Container(creator, scope, this);
+        }
+        else
+        {
+            //child contexts keep their components in an array by index.
+            container = new Container(creator, cache.getComponentIndexes(), scope, this);
+        }
         //Inject dependencies on the scope component.
         creator.injectDependencies(scope.getClass(), scope);
     }
 
     @Override
     public <T> T find(Class<T> service)
+    {
+        Map<Type, Object> current = resolved;
+        Object cached = current == null ? null : current.get(service);
+        if(cached != null)
+        {
+            return (T)copyArray(cached);
+        }
+        T result = findUncached(service);
+        remember(service, copyArray(result));
+        return result;
+    }
+
+    private <T> T findUncached(Class<T> service)
     {
         T result = findInternal(service);
         if(result != null)
@@ -88,6 +132,23 @@ final class ContextImpl<S extends Scope> implements IocContext<S>
 
     @Override
     public Object findGeneric(Type service)
+    {
+        Map<Type, Object> current = resolved;
+        Object cached = current == null ? null : current.get(service);
+        if(cached != null)
+        {
+            return copyArray(cached);
+        }
+        Object result = findGenericUncached(service);
+        if(!isMultiple(service) || isArray(service))
+        {
+            //collections and maps are mutable, so they are created each time.
+            remember(service, copyArray(result));
+        }
+        return result;
+    }
+
+    private Object findGenericUncached(Type service)
     {
         Object result = findGenericInternal(service);
         if(result != null)
@@ -118,6 +179,19 @@ final class ContextImpl<S extends Scope> implements IocContext<S>
 
     @Override
     public <T> T[] findAll(Class<T> service)
+    {
+        Map<Class<?>, Object[]> current = resolvedAll;
+        Object[] cached = current == null ? null : current.get(service);
+        if(cached != null)
+        {
+            return (T[])cached.clone();
+        }
+        T[] result = findAllUncached(service);
+        resolvedAllMap().put(service, result.clone());
+        return result;
+    }
+
+    private <T> T[] findAllUncached(Class<T> service)
     {
         T[] result = findAllInternal(service);
         if(result != null && result.length > 0)
@@ -315,6 +389,146 @@ final class ContextImpl<S extends Scope> implements IocContext<S>
         return "IocContext: " + scope;
     }
 
+    private void remember(Type service, Object result)
+    {
+        if(result != null)
+        {
+            resolvedMap().put(service, result);
+        }
+    }
+
+    private Map<Type, Object> resolvedMap()
+    {
+        Map<Type, Object> result = resolved;
+        if(result == null)
+        {
+            synchronized(this)
+            {
+                result = resolved;
+                if(result == null)
+                {
+                    result = new ConcurrentHashMap<>();
+                    resolved = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Map<Class<?>, Object[]> resolvedAllMap()
+    {
+        Map<Class<?>, Object[]> result = resolvedAll;
+        if(result == null)
+        {
+            synchronized(this)
+            {
+                result = resolvedAll;
+                if(result == null)
+                {
+                    result = new ConcurrentHashMap<>();
+                    resolvedAll = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The arrays kept in the cache are copied before giving them to the
+     * callers, so they cannot change the cached results.
+     */
+    private static Object copyArray(Object value)
+    {
+        if(value instanceof Object[])
+        {
+            return ((Object[])value).clone();
+        }
+        return value;
+    }
+
+    /**
+     * Creates the given component in this context if it was not created.
+     *
+     * @param component The class of the component.
+     *
+     * @return The instance of the component.
+     */
+    public Object createComponent(Class<?> component)
+    {
+        return container.create(component);
+    }
+
+    /**
+     * Creates the components of this context that have instantiate = true,
+     * with the given number of threads.
+     *
+     * @param threads The maximum number of threads to use.
+     */
+    public void createEagerComponents(int threads)
+    {
+        if(classSet == null)
+        {
+            return;
+        }
+        List<Class<?>> eager = classSet.findEagerComponents();
+        if(!eager.isEmpty())
+        {
+            new EagerInitializer(this, serviceMap).initialize(eager, threads);
+        }
+    }
+
+    /**
+     * Registers the Scheduled methods of the components of this context in
+     * the Scheduler, creating the components that have them.
+     */
+    public void scheduleTasks()
+    {
+        if(classSet == null)
+        {
+            return;
+        }
+        List<Class<?>> components = classSet.findScheduledComponents();
+        if(components.isEmpty())
+        {
+            return;
+        }
+        Scheduler scheduler = find(Scheduler.class);
+        for (Class<?> component : components)
+        {
+            Object instance = createComponent(component);
+            for (Method method : ClassSet.findScheduledMethods(component))
+            {
+                if(method.getParameterCount() != 0)
+                {
+                    LOG.log(Level.SEVERE, "The scheduled method {0} of {1} must not have parameters.", new Object[]{method.getName(), component.getName()});
+                    continue;
+                }
+                method.setAccessible(true);
+                try
+                {
+                    scheduler.schedule(new ScheduledMethod(instance, method), method.getAnnotation(Scheduled.class));
+                }
+                catch (IllegalArgumentException e)
+                {
+                    LOG.log(Level.SEVERE, String.format("The scheduled method %s of %s was not scheduled: %s", method.getName(), component.getName(), e.getMessage()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Shuts down the Scheduler, cancelling the tasks of the Scheduled methods
+     * of the components and any other task scheduled in it.
+     */
+    public void stopTasks()
+    {
+        Scheduler scheduler = find(Scheduler.class);
+        if(scheduler != null)
+        {
+            scheduler.shutdown();
+        }
+    }
+
     public ClassCache findCache(Class<?> cls)
     {
         return cache.getCache(cls);
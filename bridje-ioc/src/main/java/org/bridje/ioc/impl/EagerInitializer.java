@@ -0,0 +1,241 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.ioc.impl;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import org.bridje.ioc.Inject;
+import org.bridje.ioc.InjectNext;
+import org.bridje.ioc.IocContext;
+import org.bridje.ioc.Lazy;
+import org.bridje.ioc.Provider;
+
+/**
+ * Creates the components marked with instantiate = true when the context is
+ * created. The dependency graph of those components is built from the
+ * injected fields, the components in a circular dependency are created
+ * together in the same thread, and the independent ones are created in
+ * parallel if more than one thread is configured.
+ * <p>
+ * The order only follows the injected fields, a component that looks up
+ * another one in its PostConstruct method creates it in its own thread, or
+ * waits for the thread that is already creating it to initialize it.
+ */
+class EagerInitializer
+{
+    private static final Logger LOG = Logger.getLogger(EagerInitializer.class.getName());
+
+    private final ContextImpl<?> context;
+
+    private final ServiceMap serviceMap;
+
+    private final Map<Class<?>, Set<Class<?>>> graph = new LinkedHashMap<>();
+
+    private final Map<Class<?>, Integer> indexes = new HashMap<>();
+
+    private final Map<Class<?>, Integer> lowLinks = new HashMap<>();
+
+    private final Deque<Class<?>> stack = new ArrayDeque<>();
+
+    private final List<List<Class<?>>> groups = new ArrayList<>();
+
+    public EagerInitializer(ContextImpl<?> context, ServiceMap serviceMap)
+    {
+        this.context = context;
+        this.serviceMap = serviceMap;
+    }
+
+    /**
+     * Creates the given components and the components they depend on.
+     *
+     * @param components The components to create.
+     * @param threads    The maximum number of threads to use.
+     */
+    public void initialize(List<Class<?>> components, int threads)
+    {
+        components.forEach(this::addNode);
+        //the groups are found in reverse topological order, so every group
+        //comes after the groups it depends on.
+        for (Class<?> cls : graph.keySet())
+        {
+            if (!indexes.containsKey(cls))
+            {
+                findGroups(cls);
+            }
+        }
+        groups.stream()
+                .filter(g -> g.size() > 1 || graph.get(g.get(0)).contains(g.get(0)))
+                .forEach(g -> LOG.log(Level.WARNING, String.format("Circular dependency between the components %s, they will be created in the same thread.",
+                        g.stream().map(Class::getName).collect(Collectors.joining(", ")))));
+        if (threads <= 1 || groups.size() <= 1)
+        {
+            groups.forEach(this::create);
+            return;
+        }
+        createParallel(threads);
+    }
+
+    private void createParallel(int threads)
+    {
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r ->
+        {
+            Thread thread = new Thread(r, "bridje-ioc-init-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try
+        {
+            Map<Class<?>, CompletableFuture<Void>> futures = new HashMap<>();
+            List<CompletableFuture<Void>> all = new ArrayList<>();
+            for (List<Class<?>> group : groups)
+            {
+                CompletableFuture<?>[] deps = group.stream()
+                        .flatMap(cls -> graph.get(cls).stream())
+                        .map(futures::get)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .toArray(CompletableFuture<?>[]::new);
+                CompletableFuture<Void> future = CompletableFuture.allOf(deps)
+                        .thenRunAsync(() -> create(group), executor);
+                group.forEach(cls -> futures.put(cls, future));
+                all.add(future);
+            }
+            CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[all.size()])).get();
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            LOG.log(Level.SEVERE, ex.getMessage(), ex);
+        }
+        catch (ExecutionException ex)
+        {
+            LOG.log(Level.SEVERE, ex.getMessage(), ex);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private void create(List<Class<?>> group)
+    {
+        for (Class<?> cls : group)
+        {
+            context.createComponent(cls);
+        }
+    }
+
+    private void addNode(Class<?> cls)
+    {
+        if (graph.containsKey(cls))
+        {
+            return;
+        }
+        Set<Class<?>> deps = new LinkedHashSet<>();
+        graph.put(cls, deps);
+        Class<?> current = cls;
+        while (current != null && current != Object.class)
+        {
+            for (Field field : context.findCache(current).getInjectFields())
+            {
+                //lazy dependencies are created when they are used.
+                if (field.getAnnotation(Lazy.class) != null || field.getType() == Provider.class)
+                {
+                    continue;
+                }
+                if (field.getAnnotation(Inject.class) != null)
+                {
+                    addDependencies(field.getGenericType(), null, deps);
+                }
+                if (field.getAnnotation(InjectNext.class) != null)
+                {
+                    addDependencies(field.getGenericType(), serviceMap.findPriority(current), deps);
+                }
+            }
+            current = current.getSuperclass();
+        }
+        deps.forEach(this::addNode);
+    }
+
+    private void addDependencies(Type service, Integer priority, Set<Class<?>> deps)
+    {
+        if (ClassUtils.rawClass(service) == IocContext.class)
+        {
+            return;
+        }
+        if (ClassUtils.isMultiple(service))
+        {
+            List<Class<?>> all = serviceMap.findAll(ClassUtils.multipleType(service));
+            if (all != null)
+            {
+                deps.addAll(all);
+            }
+        }
+        else
+        {
+            Class<?> component = serviceMap.findOne(service, priority);
+            if (component != null)
+            {
+                deps.add(component);
+            }
+        }
+    }
+
+    /**
+     * Tarjan's algorithm for the strongly connected components of the graph.
+     */
+    private void findGroups(Class<?> cls)
+    {
+        indexes.put(cls, indexes.size());
+        lowLinks.put(cls, indexes.get(cls));
+        stack.push(cls);
+        for (Class<?> dep : graph.get(cls))
+        {
+            if (!indexes.containsKey(dep))
+            {
+                findGroups(dep);
+                lowLinks.put(cls, Math.min(lowLinks.get(cls), lowLinks.get(dep)));
+            }
+            else if (stack.contains(dep))
+            {
+                lowLinks.put(cls, Math.min(lowLinks.get(cls), indexes.get(dep)));
+            }
+        }
+        if (lowLinks.get(cls).equals(indexes.get(cls)))
+        {
+            List<Class<?>> group = new ArrayList<>();
+            Class<?> member;
+            do
+            {
+                member = stack.pop();
+                group.add(member);
+            }
+            while (member != cls);
+            groups.add(group);
+        }
+    }
+}
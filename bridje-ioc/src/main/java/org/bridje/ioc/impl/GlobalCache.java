@@ -21,16 +21,12 @@ import java.util.concurrent.ConcurrentHashMap;
 
 class GlobalCache
 {
-    private static GlobalCache INSTANCE;
+    private static final GlobalCache INSTANCE = new GlobalCache();
 
     private final Map<Class<?>, ScopeCache> scopeMap;
 
     public static GlobalCache instance()
     {
-        if (INSTANCE == null)
-        {
-            INSTANCE = new GlobalCache();
-        }
         return INSTANCE;
     }
 
@@ -44,8 +40,7 @@ class GlobalCache
         ScopeCache cache = scopeMap.get(scope);
         if (cache == null)
         {
-            cache = new ScopeCache();
-            scopeMap.put(scope, cache);
+            cache = scopeMap.computeIfAbsent(scope, ScopeCache::new);
         }
         return cache;
     }
@@ -17,17 +17,22 @@
 package org.bridje.ioc.impl;
 
 import java.lang.reflect.*;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.bridje.ioc.ComponentFactory;
 import org.bridje.ioc.ContextListener;
 import org.bridje.ioc.Inject;
 import org.bridje.ioc.InjectNext;
+import org.bridje.ioc.Provider;
 
 class Instanciator
 {
     private static final Logger LOG = Logger.getLogger(Instanciator.class.getName());
 
+    private static final int[] NO_LISTENERS = new int[0];
+
     private final ContextImpl<?> context;
 
     private final ServiceMap serviceMap;
@@ -45,6 +50,11 @@ class Instanciator
     {
         try
         {
+            ComponentFactory factory = context.findCache(cls).getFactory();
+            if (factory != null)
+            {
+                return (T) factory.create();
+            }
             Constructor<?> constructor = context.findCache(cls).getConstructor();
             if (constructor == null)
             {
@@ -52,7 +62,7 @@ class Instanciator
             }
             return (T) constructor.newInstance();
         }
-        catch (InstantiationException | IllegalArgumentException | InvocationTargetException | IllegalAccessException ex)
+        catch (InstantiationException | RuntimeException | InvocationTargetException | IllegalAccessException ex)
         {
             LOG.warning(ex.getMessage());
         }
@@ -61,6 +71,11 @@ class Instanciator
 
     public void callPostConstruct(Class cls, Object obj)
     {
+        ComponentFactory factory = context.findCache(cls).getFactory();
+        if (factory != null && factory.postConstruct(obj))
+        {
+            return;
+        }
         Class currentClass = cls;
         while (!currentClass.equals(Object.class))
         {
@@ -82,7 +97,13 @@ class Instanciator
 
     public void injectDependencies(Class cls, Object obj)
     {
-        List<Field> fields = context.findCache(cls).getInjectFields();
+        ClassCache cache = context.findCache(cls);
+        ComponentFactory factory = cache.getFactory();
+        if (factory != null && factory.inject(obj, context))
+        {
+            return;
+        }
+        List<Field> fields = cache.getInjectFields();
         for (Field field : fields)
         {
             Inject annotation = field.getAnnotation(Inject.class);
@@ -93,7 +114,7 @@ class Instanciator
             InjectNext annotationNext = field.getAnnotation(InjectNext.class);
             if (annotationNext != null)
             {
-                injectDependency(cls, obj, field, ClassUtils.findPriority(cls));
+                injectDependency(cls, obj, field, serviceMap.findPriority(cls));
             }
         }
 
@@ -110,7 +131,16 @@ class Instanciator
         {
             Type service = field.getGenericType();
             Object componentObj;
-            if (priority == null)
+            Constructor<?> lazyProxy = context.findCache(cls).getLazyProxy(field);
+            if (ClassUtils.rawClass(service) == Provider.class)
+            {
+                componentObj = new LazyProvider<>(context, providedType(service), priority);
+            }
+            else if (lazyProxy != null && context.exists(service))
+            {
+                componentObj = lazyProxy.newInstance(new LazyProvider<>(context, service, priority));
+            }
+            else if (priority == null)
             {
                 componentObj = context.findGeneric(service);
             }
@@ -121,12 +151,21 @@ class Instanciator
 
             field.set(obj, componentObj);
         }
-        catch (IllegalArgumentException | IllegalAccessException ex)
+        catch (IllegalArgumentException | ReflectiveOperationException ex)
         {
             LOG.log(Level.SEVERE, ex.getMessage(), ex);
         }
     }
 
+    private Type providedType(Type service)
+    {
+        if (service instanceof ParameterizedType)
+        {
+            return ((ParameterizedType) service).getActualTypeArguments()[0];
+        }
+        return Object.class;
+    }
+
     private void initContextListeners()
     {
         if (null == contextListeners)
@@ -137,116 +176,65 @@ class Instanciator
 
     protected <T> void invokePreCreateListener(Class<T> cls)
     {
-        if (ContextListener.class.isAssignableFrom(cls))
+        for (int index : findContextListeners(cls))
         {
-            return;
-        }
-
-        initContextListeners();
-        if (null != contextListeners)
-        {
-            for (ContextListener contextListener : contextListeners)
-            {
-                //find the generic parameter type of ContextListener,
-                //example ContexListener<Integer> -> type = java.lang.Integer
-                Type type = findGenericType(contextListener.getClass());
-                if (type.equals(Object.class))
-                {
-                    contextListener.preCreateComponent(cls);
-                }
-                else
-                {
-                    List<Type> services = serviceMap.getServices(cls);
-                    if (services != null)
-                    {
-                        for (Type service : services)
-                        {
-                            if (type.equals(service))
-                            {
-                                contextListener.preCreateComponent(cls);
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
+            contextListeners[index].preCreateComponent(cls);
         }
     }
 
     public <T> void invokePreInitListener(Class<T> cls, Object instance)
     {
-        if (ContextListener.class.isAssignableFrom(cls))
+        for (int index : findContextListeners(cls))
         {
-            return;
+            contextListeners[index].preInitComponent(cls, instance);
         }
+    }
 
-        initContextListeners();
-        if (null != contextListeners)
+    public <T> void invokePostInitListener(Class<T> cls, Object instance)
+    {
+        for (int index : findContextListeners(cls))
         {
-            for (ContextListener contextListener : contextListeners)
-            {
-                //find the generic parameter type of ContextListener,
-                //example ContexListener<Integer> -> type = java.lang.Integer
-                Type type = findGenericType(contextListener.getClass());
-                if (type.equals(Object.class))
-                {
-                    contextListener.preInitComponent(cls, instance);
-                }
-                else
-                {
-                    List<Type> services = serviceMap.getServices(cls);
-                    if (services != null)
-                    {
-                        for (Type service : services)
-                        {
-                            if (type.equals(service))
-                            {
-                                contextListener.preInitComponent(cls, instance);
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
+            contextListeners[index].postInitComponent(cls, instance);
         }
     }
 
-    public <T> void invokePostInitListener(Class<T> cls, Object instance)
+    private int[] findContextListeners(Class<?> cls)
     {
         if (ContextListener.class.isAssignableFrom(cls))
         {
-            return;
+            return NO_LISTENERS;
         }
-
         initContextListeners();
-        if (null != contextListeners)
+        if (null == contextListeners || contextListeners.length == 0)
+        {
+            return NO_LISTENERS;
+        }
+        ClassCache cache = context.findCache(cls);
+        int[] result = cache.getContextListeners();
+        if (result == null)
+        {
+            result = createContextListeners(cls);
+            cache.setContextListeners(result);
+        }
+        return result;
+    }
+
+    private int[] createContextListeners(Class<?> cls)
+    {
+        List<Type> services = serviceMap.getServices(cls);
+        int[] result = new int[contextListeners.length];
+        int count = 0;
+        for (int i = 0; i < contextListeners.length; i++)
         {
-            for (ContextListener contextListener : contextListeners)
+            //find the generic parameter type of ContextListener,
+            //example ContexListener<Integer> -> type = java.lang.Integer
+            Type type = findGenericType(contextListeners[i].getClass());
+            if (type.equals(Object.class) || (services != null && services.contains(type)))
             {
-                //find the generic parameter type of ContextListener,
-                //example ContexListener<Integer> -> type = java.lang.Integer
-                Type type = findGenericType(contextListener.getClass());
-                if (type.equals(Object.class))
-                {
-                    contextListener.postInitComponent(cls, instance);
-                }
-                else
-                {
-                    List<Type> services = serviceMap.getServices(cls);
-                    if (services != null)
-                    {
-                        for (Type service : services)
-                        {
-                            if (type.equals(service))
-                            {
-                                contextListener.postInitComponent(cls, instance);
-                                break;
-                            }
-                        }
-                    }
-                }
+                result[count++] = i;
             }
         }
+        return count == 0 ? NO_LISTENERS : Arrays.copyOf(result, count);
     }
 
     private Type findGenericType(Class<? extends ContextListener> clazz)
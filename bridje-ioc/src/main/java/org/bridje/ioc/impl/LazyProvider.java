@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.ioc.impl;
+
+import java.lang.reflect.Type;
+import org.bridje.ioc.IocContext;
+import org.bridje.ioc.Provider;
+
+/**
+ * The Provider injected in the fields of type Provider and in the lazy
+ * proxies, it finds the component the first time it is needed.
+ */
+class LazyProvider<T> implements Provider<T>
+{
+    private final IocContext<?> context;
+
+    private final Type service;
+
+    private final Integer priority;
+
+    private volatile T instance;
+
+    public LazyProvider(IocContext<?> context, Type service, Integer priority)
+    {
+        this.context = context;
+        this.service = service;
+        this.priority = priority;
+    }
+
+    @Override
+    public T get()
+    {
+        T result = instance;
+        if (result == null)
+        {
+            if (priority == null)
+            {
+                result = (T) context.findGeneric(service);
+            }
+            else
+            {
+                result = (T) context.findNextGeneric(service, priority);
+            }
+            instance = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Provider of " + service.getTypeName();
+    }
+}
@@ -16,18 +16,33 @@
 
 package org.bridje.ioc.impl;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Holds the information shared by all the contexts of the same scope, so
+ * creating a new context does not need to look it up again.
+ */
 class ScopeCache
 {
     private final Map<Class<?>, ClassCache> classMap;
 
-    public ScopeCache()
+    private final ClassSet classSet;
+
+    private final ServiceMap serviceMap;
+
+    private final Map<String, Integer> componentIndexes;
+
+    public ScopeCache(Class<?> scope)
     {
         classMap = new ConcurrentHashMap<>();
+        classSet = ClassSet.findByScope(scope);
+        serviceMap = ServiceMap.findByScope(scope);
+        componentIndexes = createIndexes(classSet);
     }
-    
+
     public ClassCache getCache(Class<?> cls)
     {
         ClassCache cache = classMap.get(cls);
@@ -38,4 +53,40 @@ class ScopeCache
         }
         return cache;
     }
+
+    public ClassSet getClassSet()
+    {
+        return classSet;
+    }
+
+    public ServiceMap getServiceMap()
+    {
+        return serviceMap;
+    }
+
+    /**
+     * The position of each component of the scope, used by the containers to
+     * hold the instances in an array.
+     *
+     * @return A map from the component class name to its index.
+     */
+    public Map<String, Integer> getComponentIndexes()
+    {
+        return componentIndexes;
+    }
+
+    private static Map<String, Integer> createIndexes(ClassSet classSet)
+    {
+        if(classSet == null)
+        {
+            return Collections.emptyMap();
+        }
+        //by name so the classes of the index are not loaded.
+        Map<String, Integer> result = new HashMap<>();
+        for (String name : classSet.getNames())
+        {
+            result.put(name, result.size());
+        }
+        return Collections.unmodifiableMap(result);
+    }
 }
@@ -33,39 +33,66 @@ class ServiceMap
     private static final Map<Class<?>, ServiceMap> SERVICES_MAP = new ConcurrentHashMap<>();
 
     /**
-     * The service map, who links a services to a list of components.
+     * The service map, who links a services to the components that provides
+     * it. The entries are replaced, never modified, when a new component is
+     * loaded.
      */
-    private final Map<Type, List<Class<?>>> map;
+    private final Map<Type, Providers> map = new ConcurrentHashMap<>();
 
     /**
      * A map who links the components to a list of all it´s services.
      */
-    private final Map<Class<?>, List<Type>> compMap;
+    private final Map<Class<?>, List<Type>> compMap = new ConcurrentHashMap<>();
+
+    /**
+     * The priority of each component.
+     */
+    private final Map<Class<?>, Integer> compPriorities = new ConcurrentHashMap<>();
+
+    /**
+     * The raw services whose components are all loaded and in the map.
+     */
+    private final Set<Class<?>> resolved = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The components of the index that are not loaded yet, by the name of
+     * the services they provide.
+     */
+    private final Map<String, List<ComponentIndex.Entry>> pendingMap = new HashMap<>();
+
+    /**
+     * All the components of the index, every one of them provides Object.
+     */
+    private final List<ComponentIndex.Entry> allEntries = new ArrayList<>();
+
+    /**
+     * The class set of the scope, used to load the components of the index.
+     */
+    private final ClassSet clsSet;
 
     /**
      * Constructor for this class.
      *
-     * @param baseMap A service map to base this service map from.
      * @param clsSet  The components to create this services map for.
      */
     public ServiceMap(ClassSet clsSet)
     {
-        Map<Type, List<Class<?>>> servMap = new HashMap<>();
-        Map<Class<?>, List<Type>> compsMap = new HashMap<>();
+        this.clsSet = clsSet;
         if (clsSet != null)
         {
-            for (Class component : clsSet)
+            for (Class<?> component : clsSet.getLoadedClasses())
             {
-                List<Type> services = findServices(component);
-                compsMap.put(component, services);
-                services.stream()
-                        .forEach((service) -> addComponentToService(servMap, service, component));
+                addComponent(component, ClassUtils.findPriority(component));
+            }
+            allEntries.addAll(clsSet.getPendingEntries());
+            for (ComponentIndex.Entry entry : allEntries)
+            {
+                for (String service : entry.getServices())
+                {
+                    pendingMap.computeIfAbsent(service, k -> new ArrayList<>()).add(entry);
+                }
             }
         }
-        servMap.values().stream()
-                .forEach((value) -> ClassUtils.sort(value));
-        this.map = servMap;
-        this.compMap = compsMap;
     }
 
     /**
@@ -92,26 +119,26 @@ class ServiceMap
     {
         if (ClassUtils.rawClass(service).equals(IocContext.class))
         {
-            return map.get(ClassUtils.rawClass(service)).get(0);
+            return lookup(IocContext.class).components.get(0);
         }
-        List<Class<?>> lst = map.get(service);
-        if (lst == null || lst.isEmpty())
+        Providers providers = lookup(service);
+        if (providers == null || providers.components.isEmpty())
         {
             return null;
         }
         if (priority == null)
         {
-            return (Class) lst.get(0);
+            return (Class) providers.components.get(0);
         }
         else
         {
-            for (Class<?> cls : lst)
+            //the first component with a priority greater than the given one,
+            //components without priority are always the next ones.
+            int[] priorities = providers.priorities;
+            int index = firstAbove(priorities, priority == Integer.MAX_VALUE ? priority - 1 : priority);
+            if (index < priorities.length)
             {
-                int v1 = ClassUtils.findPriority(cls);
-                if (v1 > priority || v1 == Integer.MAX_VALUE)
-                {
-                    return (Class) cls;
-                }
+                return (Class) providers.components.get(index);
             }
         }
         return null;
@@ -126,7 +153,7 @@ class ServiceMap
      */
     public boolean exists(Type service)
     {
-        return map.containsKey(service);
+        return lookup(service) != null;
     }
 
     /**
@@ -145,12 +172,12 @@ class ServiceMap
         }
         if (realService != null)
         {
-            List<Class<?>> result = map.get(realService);
+            Providers result = lookup(realService);
             if (result == null)
             {
                 return null;
             }
-            return Collections.unmodifiableList(result);
+            return result.components;
         }
         return Collections.EMPTY_LIST;
     }
@@ -170,9 +197,7 @@ class ServiceMap
             ClassSet classSet = ClassSet.findByScope(scope);
             if (classSet != null)
             {
-                ServiceMap result = new ServiceMap(classSet);
-                SERVICES_MAP.put(scope, result);
-                return result;
+                return SERVICES_MAP.computeIfAbsent(scope, s -> new ServiceMap(classSet));
             }
             return null;
         }
@@ -188,7 +213,48 @@ class ServiceMap
      */
     public List<Type> getServices(Class<?> component)
     {
-        return compMap.get(component);
+        return compMap.computeIfAbsent(component, ServiceMap::findServices);
+    }
+
+    /**
+     * Finds the priority of the given component.
+     *
+     * @param component The component class.
+     *
+     * @return The priority of the component, or the one in its Priority
+     *         annotation if the class is not a component of this map.
+     */
+    public int findPriority(Class<?> component)
+    {
+        Integer priority = compPriorities.get(component);
+        if (priority == null)
+        {
+            return ClassUtils.findPriority(component);
+        }
+        return priority;
+    }
+
+    /**
+     * Binary search for the first index whose priority is greater than the
+     * given value.
+     */
+    private static int firstAbove(int[] priorities, int value)
+    {
+        int low = 0;
+        int high = priorities.length;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (priorities[mid] > value)
+            {
+                high = mid;
+            }
+            else
+            {
+                low = mid + 1;
+            }
+        }
+        return low;
     }
 
     /**
@@ -265,23 +331,102 @@ class ServiceMap
     }
 
     /**
-     * Adds a component to a list of components that provides the given service.
-     *
-     * @param service   The service provided
-     * @param component The component who provides the given services.
+     * Finds the components of a service, loading first the components of the
+     * index that provides it.
      */
-    private static void addComponentToService(Map<Type, List<Class<?>>> servMap, Type service, Class<?> component)
+    private Providers lookup(Type service)
+    {
+        Class<?> raw = ClassUtils.rawClass(service);
+        if (raw != null && !resolved.contains(raw))
+        {
+            resolve(raw);
+        }
+        return map.get(service);
+    }
+
+    private synchronized void resolve(Class<?> raw)
     {
-        List<Class<?>> components = servMap.get(service);
-        if (components == null)
+        if (resolved.contains(raw))
         {
-            components = new ArrayList<>();
-            servMap.put(service, components);
+            return;
         }
-        if (!components.contains(component))
+        if (clsSet != null)
         {
-            components.add(component);
+            //every component provides Object, so all of them must be loaded.
+            List<ComponentIndex.Entry> entries = raw == Object.class
+                    ? allEntries
+                    : pendingMap.remove(raw.getName());
+            if (entries != null)
+            {
+                for (ComponentIndex.Entry entry : entries)
+                {
+                    Class<?> component = clsSet.load(entry);
+                    if (component != null && !compPriorities.containsKey(component))
+                    {
+                        addComponent(component, entry.getPriority());
+                    }
+                }
+            }
         }
+        resolved.add(raw);
     }
 
+    /**
+     * Adds a component to the lists of all the services it provides, keeping
+     * them sorted by priority.
+     */
+    private void addComponent(Class<?> component, int priority)
+    {
+        List<Type> services = findServices(component);
+        compMap.put(component, services);
+        compPriorities.put(component, priority);
+        for (Type service : services)
+        {
+            Providers current = map.get(service);
+            if (current == null)
+            {
+                map.put(service, new Providers(Collections.singletonList(component), new int[]{priority}));
+            }
+            else if (!current.components.contains(component))
+            {
+                map.put(service, current.add(component, priority));
+            }
+        }
+    }
+
+    /**
+     * The components of a service sorted by priority, with their priorities.
+     * The components with the same priority are sorted by class name, so the
+     * order does not depend on the order in which they are loaded.
+     */
+    private static final class Providers
+    {
+        private final List<Class<?>> components;
+
+        private final int[] priorities;
+
+        Providers(List<Class<?>> components, int[] priorities)
+        {
+            this.components = components;
+            this.priorities = priorities;
+        }
+
+        Providers add(Class<?> component, int priority)
+        {
+            int index = firstAbove(priorities, priority);
+            while (index > 0 && priorities[index - 1] == priority
+                    && components.get(index - 1).getName().compareTo(component.getName()) > 0)
+            {
+                index--;
+            }
+            List<Class<?>> newComponents = new ArrayList<>(components.size() + 1);
+            newComponents.addAll(components);
+            newComponents.add(index, component);
+            int[] newPriorities = new int[priorities.length + 1];
+            System.arraycopy(priorities, 0, newPriorities, 0, index);
+            newPriorities[index] = priority;
+            System.arraycopy(priorities, index, newPriorities, index + 1, priorities.length - index);
+            return new Providers(Collections.unmodifiableList(newComponents), newPriorities);
+        }
+    }
 }
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.ioc.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records the time spent creating the application context, when the
+ * {@value ContextFactory#PROFILE_PROPERTY} system property is set to the path
+ * of the report file. For each component it records the time to load its
+ * class, to construct it, to inject its dependencies and to call its
+ * PostConstruct methods, and for each class path entry the time to read its
+ * components files. The times are self times, the time spent in a phase
+ * creating other components (or loading their classes) is recorded for those
+ * components only, so the sum of all the times is the real startup time.
+ * <p>
+ * When the application context is ready the report is logged and written as
+ * JSON, and the profiler stops recording.
+ */
+final class StartupProfiler
+{
+    private static final Logger LOG = Logger.getLogger(StartupProfiler.class.getName());
+
+    public static final int CLASS_LOADING = 0;
+
+    public static final int CONSTRUCTION = 1;
+
+    public static final int INJECTION = 2;
+
+    public static final int POST_CONSTRUCT = 3;
+
+    private static final String[] PHASES = {"classLoading", "construction", "injection", "postConstruct"};
+
+    private static final String REPORT_FILE = System.getProperty(ContextFactory.PROFILE_PROPERTY);
+
+    private static final boolean ENABLED = REPORT_FILE != null && !REPORT_FILE.isEmpty();
+
+    private static final long START = System.nanoTime();
+
+    private static final Map<String, AtomicLongArray> COMPONENTS = new ConcurrentHashMap<>();
+
+    private static final Map<String, Long> CLASSPATH = new ConcurrentHashMap<>();
+
+    /**
+     * The phases being recorded in each thread, with its start time and the
+     * time spent in the phases nested on it.
+     */
+    private static final ThreadLocal<Deque<long[]>> STACK = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private static volatile boolean active = ENABLED;
+
+    private StartupProfiler()
+    {
+    }
+
+    /**
+     * Determines if the profiler is recording.
+     *
+     * @return true the times must be recorded.
+     */
+    public static boolean isActive()
+    {
+        return ENABLED && active;
+    }
+
+    /**
+     * The start time of a phase, to be given to the record methods. The
+     * phases started in the same thread until it is recorded are nested on
+     * it.
+     *
+     * @return The current time, or 0 if the profiler is not recording.
+     */
+    public static long start()
+    {
+        if (!isActive())
+        {
+            return 0;
+        }
+        long result = System.nanoTime();
+        STACK.get().push(new long[]{result, 0});
+        return result;
+    }
+
+    /**
+     * Records the time of a phase of the creation of a component.
+     *
+     * @param className The name of the component class.
+     * @param phase     The phase of the creation.
+     * @param start     The time returned by the start method.
+     */
+    public static void record(String className, int phase, long start)
+    {
+        long self = finish(start);
+        if (self < 0 || !isActive())
+        {
+            return;
+        }
+        COMPONENTS.computeIfAbsent(className, k -> new AtomicLongArray(PHASES.length))
+                .addAndGet(phase, self);
+    }
+
+    /**
+     * Records the time spent reading a components file of the class path.
+     *
+     * @param resource The URL of the components file or folder.
+     * @param start    The time returned by the start method.
+     */
+    public static void recordScan(URL resource, long start)
+    {
+        long self = finish(start);
+        if (self < 0 || !isActive())
+        {
+            return;
+        }
+        String name = resource.toString();
+        int index = name.indexOf("BRIDJE-INF");
+        String entry = index > 0 ? name.substring(0, index) : name;
+        CLASSPATH.merge(entry, self, Long::sum);
+    }
+
+    /**
+     * Ends the phase that started at the given time, and adds its time to the
+     * phase that contains it.
+     *
+     * @return The self time of the phase, or -1 if it was not recorded.
+     */
+    private static long finish(long start)
+    {
+        if (start == 0)
+        {
+            return -1;
+        }
+        Deque<long[]> stack = STACK.get();
+        long[] frame = stack.poll();
+        //the phases that ended with an exception were not recorded.
+        while (frame != null && frame[0] != start)
+        {
+            frame = stack.poll();
+        }
+        if (frame == null)
+        {
+            STACK.remove();
+            return -1;
+        }
+        long elapsed = System.nanoTime() - start;
+        long[] parent = stack.peek();
+        if (parent == null)
+        {
+            STACK.remove();
+        }
+        else
+        {
+            parent[1] += elapsed;
+        }
+        return elapsed - frame[1];
+    }
+
+    /**
+     * Logs and writes the report, and stops recording.
+     */
+    public static void report()
+    {
+        if (!isActive())
+        {
+            return;
+        }
+        active = false;
+        STACK.remove();
+        long total = System.nanoTime() - START;
+        List<Map.Entry<String, AtomicLongArray>> components = new ArrayList<>(COMPONENTS.entrySet());
+        components.sort(Comparator.comparingLong((Map.Entry<String, AtomicLongArray> e) -> sum(e.getValue())).reversed());
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(CLASSPATH.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+
+        StringBuilder log = new StringBuilder();
+        log.append(String.format("IoC startup took %s ms, %d components created.%n", millis(total), components.size()));
+        log.append(String.format("%12s %12s %12s %12s %12s  %s%n", "total", "class", "construct", "inject", "postConst", "component"));
+        for (Map.Entry<String, AtomicLongArray> e : components)
+        {
+            AtomicLongArray times = e.getValue();
+            log.append(String.format("%12s %12s %12s %12s %12s  %s%n", millis(sum(times)),
+                    millis(times.get(CLASS_LOADING)), millis(times.get(CONSTRUCTION)),
+                    millis(times.get(INJECTION)), millis(times.get(POST_CONSTRUCT)), e.getKey()));
+        }
+        for (Map.Entry<String, Long> e : entries)
+        {
+            log.append(String.format("%12s  %s%n", millis(e.getValue()), e.getKey()));
+        }
+        LOG.log(Level.INFO, log.toString());
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(new File(REPORT_FILE).toPath(), StandardCharsets.UTF_8)))
+        {
+            out.print("{\"totalMillis\": " + millis(total) + ",\n \"components\": [");
+            for (int i = 0; i < components.size(); i++)
+            {
+                AtomicLongArray times = components.get(i).getValue();
+                out.print(i == 0 ? "\n  " : ",\n  ");
+                out.print("{\"class\": " + quote(components.get(i).getKey()) + ", \"totalMillis\": " + millis(sum(times)));
+                for (int phase = 0; phase < PHASES.length; phase++)
+                {
+                    out.print(", \"" + PHASES[phase] + "Millis\": " + millis(times.get(phase)));
+                }
+                out.print("}");
+            }
+            out.print("],\n \"classpath\": [");
+            for (int i = 0; i < entries.size(); i++)
+            {
+                out.print(i == 0 ? "\n  " : ",\n  ");
+                out.print("{\"entry\": " + quote(entries.get(i).getKey()) + ", \"scanMillis\": " + millis(entries.get(i).getValue()) + "}");
+            }
+            out.println("]}");
+        }
+        catch (IOException e)
+        {
+            LOG.log(Level.WARNING, String.format("Could not write the startup report %s.", REPORT_FILE), e);
+        }
+        COMPONENTS.clear();
+        CLASSPATH.clear();
+    }
+
+    private static long sum(AtomicLongArray times)
+    {
+        long result = 0;
+        for (int i = 0; i < times.length(); i++)
+        {
+            result += times.get(i);
+        }
+        return result;
+    }
+
+    private static String millis(long nanos)
+    {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static String quote(String value)
+    {
+        StringBuilder result = new StringBuilder("\"");
+        for (char c : value.toCharArray())
+        {
+            if (c == '"' || c == '\\')
+            {
+                result.append('\\').append(c);
+            }
+            else if (c < 0x20)
+            {
+                result.append(String.format("\\u%04x", (int) c));
+            }
+            else
+            {
+                result.append(c);
+            }
+        }
+        return result.append('"').toString();
+    }
+}
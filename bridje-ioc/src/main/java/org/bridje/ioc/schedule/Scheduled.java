@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bridje.ioc.schedule;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks a method of an application component to be called periodically by the
+ * {@link Scheduler}. The method must not have parameters, and exactly one of
+ * fixedRate, fixedDelay or cron must be specified. The component is created
+ * when the application context is created.
+ * <pre>
+ * &#64;Component
+ * class CacheRefresher
+ * {
+ *     &#64;Scheduled(fixedDelay = 5, unit = TimeUnit.MINUTES)
+ *     public void refresh()
+ *     {
+ *         ...
+ *     }
+ *
+ *     &#64;Scheduled(cron = "0 3 * * *")
+ *     public void cleanUp()
+ *     {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Scheduled
+{
+    /**
+     * The period between the start of each execution.
+     *
+     * @return The period in the given unit.
+     */
+    long fixedRate() default 0;
+
+    /**
+     * The delay between the end of an execution and the start of the next one.
+     *
+     * @return The delay in the given unit.
+     */
+    long fixedDelay() default 0;
+
+    /**
+     * A cron expression with the minute, hour, day of month, month and day of
+     * week fields, each one can be *, a number, a range (1-5), a list (1,3,5)
+     * or a step (*&#47;15). The days of week are 0 to 7, where 0 and 7 are
+     * Sunday.
+     *
+     * @return The cron expression.
+     */
+    String cron() default "";
+
+    /**
+     * The delay before the first execution for fixedRate and fixedDelay
+     * tasks.
+     *
+     * @return The initial delay in the given unit.
+     */
+    long initialDelay() default 0;
+
+    /**
+     * The unit of fixedRate, fixedDelay and initialDelay.
+     *
+     * @return The time unit.
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
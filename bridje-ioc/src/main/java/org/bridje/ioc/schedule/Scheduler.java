@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bridje.ioc.schedule;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the periodic tasks of the application in a shared pool of threads.
+ * The methods annotated with {@link Scheduled} are registered automatically
+ * when the application context is created, other tasks can be registered
+ * with the methods of this service.
+ * <p>
+ * An exception thrown by a task is logged and does not cancel the next
+ * executions. The threads of the scheduler are daemon threads, the
+ * scheduler is shut down by {@link org.bridje.ioc.Ioc#stop()} or else when the
+ * JVM exits.
+ * <p>
+ * The number of threads can be set with the {@value #THREADS_PROPERTY} system
+ * property.
+ */
+public interface Scheduler
+{
+    /**
+     * The system property with the number of threads for the tasks, 2 by
+     * default.
+     */
+    public static final String THREADS_PROPERTY = "bridje.ioc.scheduler.threads";
+
+    /**
+     * Runs the task periodically, every period starting after the initial
+     * delay.
+     *
+     * @param task         The task to run.
+     * @param initialDelay The delay before the first execution.
+     * @param period       The period between the start of each execution.
+     * @param unit         The unit of the delay and period.
+     *
+     * @return The future to cancel the task.
+     */
+    Future<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit);
+
+    /**
+     * Runs the task periodically, waiting the given delay between the end of
+     * an execution and the start of the next one.
+     *
+     * @param task         The task to run.
+     * @param initialDelay The delay before the first execution.
+     * @param delay        The delay between executions.
+     * @param unit         The unit of the delays.
+     *
+     * @return The future to cancel the task.
+     */
+    Future<?> scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit);
+
+    /**
+     * Runs the task every time the cron expression matches.
+     *
+     * @param task The task to run.
+     * @param cron The cron expression, see {@link Scheduled#cron()}.
+     *
+     * @return The future to cancel the task.
+     *
+     * @throws IllegalArgumentException If the expression is not valid.
+     */
+    Future<?> scheduleCron(Runnable task, String cron);
+
+    /**
+     * Runs the task as specified by the Scheduled annotation.
+     *
+     * @param task     The task to run.
+     * @param schedule The schedule of the task.
+     *
+     * @return The future to cancel the task.
+     *
+     * @throws IllegalArgumentException If the annotation does not specify
+     *                                  exactly one of fixedRate, fixedDelay or
+     *                                  cron.
+     */
+    Future<?> schedule(Runnable task, Scheduled schedule);
+
+    /**
+     * Cancels all the tasks and stops the threads of the scheduler. The
+     * tasks that are running are allowed to end, they are interrupted if
+     * they do not end in 30 seconds. The tasks scheduled after the shutdown
+     * run in new threads.
+     */
+    void shutdown();
+}
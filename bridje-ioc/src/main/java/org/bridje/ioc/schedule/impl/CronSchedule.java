@@ -0,0 +1,175 @@
+/*
+ * Copyright 2015 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bridje.ioc.schedule.impl;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+/**
+ * A parsed cron expression with the minute, hour, day of month, month and day
+ * of week fields.
+ */
+final class CronSchedule
+{
+    private final BitSet minutes;
+
+    private final BitSet hours;
+
+    private final BitSet days;
+
+    private final BitSet months;
+
+    private final BitSet daysOfWeek;
+
+    private final boolean anyDay;
+
+    private final boolean anyDayOfWeek;
+
+    /**
+     * Parses the given cron expression.
+     *
+     * @param expression The cron expression.
+     *
+     * @throws IllegalArgumentException If the expression is not valid.
+     */
+    public CronSchedule(String expression)
+    {
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5)
+        {
+            throw new IllegalArgumentException(String.format("Invalid cron expression %s, it must have 5 fields.", expression));
+        }
+        minutes = parseField(expression, fields[0], 0, 59);
+        hours = parseField(expression, fields[1], 0, 23);
+        days = parseField(expression, fields[2], 1, 31);
+        months = parseField(expression, fields[3], 1, 12);
+        daysOfWeek = parseField(expression, fields[4], 0, 7);
+        if (daysOfWeek.get(7))
+        {
+            daysOfWeek.set(0);
+        }
+        anyDay = fields[2].startsWith("*");
+        anyDayOfWeek = fields[4].startsWith("*");
+    }
+
+    /**
+     * Finds the next time that matches this expression.
+     *
+     * @param after The time after which to look.
+     *
+     * @return The next matching time, or null if there is none in the next
+     *         years (for example for the 31 of February).
+     */
+    public ZonedDateTime next(ZonedDateTime after)
+    {
+        ZonedDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        ZonedDateTime limit = after.plusYears(5);
+        while (time.isBefore(limit))
+        {
+            if (!months.get(time.getMonthValue()))
+            {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            }
+            else if (!matchesDay(time))
+            {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            }
+            else if (!hours.get(time.getHour()))
+            {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            }
+            else if (!minutes.get(time.getMinute()))
+            {
+                time = time.plusMinutes(1);
+            }
+            else
+            {
+                return time;
+            }
+        }
+        return null;
+    }
+
+    private boolean matchesDay(ZonedDateTime time)
+    {
+        boolean day = days.get(time.getDayOfMonth());
+        boolean dayOfWeek = daysOfWeek.get(time.getDayOfWeek().getValue() % 7);
+        if (anyDay && anyDayOfWeek)
+        {
+            return true;
+        }
+        if (anyDay)
+        {
+            return dayOfWeek;
+        }
+        if (anyDayOfWeek)
+        {
+            return day;
+        }
+        //as in the standard cron, if both are restricted any of them matches.
+        return day || dayOfWeek;
+    }
+
+    private static BitSet parseField(String expression, String field, int min, int max)
+    {
+        BitSet result = new BitSet(max + 1);
+        try
+        {
+            for (String part : field.split(","))
+            {
+                int step = 1;
+                String range = part;
+                int slash = part.indexOf('/');
+                if (slash >= 0)
+                {
+                    step = Integer.parseInt(part.substring(slash + 1));
+                    range = part.substring(0, slash);
+                }
+                int start;
+                int end;
+                if (range.equals("*"))
+                {
+                    start = min;
+                    end = max;
+                }
+                else if (range.contains("-"))
+                {
+                    start = Integer.parseInt(range.substring(0, range.indexOf('-')));
+                    end = Integer.parseInt(range.substring(range.indexOf('-') + 1));
+                }
+                else
+                {
+                    start = Integer.parseInt(range);
+                    end = slash >= 0 ? max : start;
+                }
+                if (start < min || end > max || start > end || step < 1)
+                {
+                    throw new IllegalArgumentException(String.format("Invalid field %s in the cron expression %s.", field, expression));
+                }
+                for (int i = start; i <= end; i += step)
+                {
+                    result.set(i);
+                }
+            }
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException(String.format("Invalid field %s in the cron expression %s.", field, expression), e);
+        }
+        return result;
+    }
+}
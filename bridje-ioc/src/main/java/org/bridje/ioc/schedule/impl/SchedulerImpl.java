@@ -0,0 +1,301 @@
+/*
+ * Copyright 2015 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.bridje.ioc.schedule.impl;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bridje.ioc.Component;
+import org.bridje.ioc.schedule.Scheduled;
+import org.bridje.ioc.schedule.Scheduler;
+
+@Component
+class SchedulerImpl implements Scheduler
+{
+    private static final Logger LOG = Logger.getLogger(SchedulerImpl.class.getName());
+
+    private static final long SHUTDOWN_TIMEOUT = 30;
+
+    private volatile ScheduledThreadPoolExecutor executor;
+
+    private Thread shutdownHook;
+
+    @Override
+    public Future<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit)
+    {
+        return findExecutor().scheduleAtFixedRate(safe(task), initialDelay, period, unit);
+    }
+
+    @Override
+    public Future<?> scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit)
+    {
+        return findExecutor().scheduleWithFixedDelay(safe(task), initialDelay, delay, unit);
+    }
+
+    @Override
+    public Future<?> scheduleCron(Runnable task, String cron)
+    {
+        CronTask result = new CronTask(safe(task), new CronSchedule(cron), findExecutor());
+        result.scheduleNext();
+        return result;
+    }
+
+    @Override
+    public Future<?> schedule(Runnable task, Scheduled schedule)
+    {
+        boolean cron = !schedule.cron().trim().isEmpty();
+        boolean rate = schedule.fixedRate() > 0;
+        boolean delay = schedule.fixedDelay() > 0;
+        if ((cron ? 1 : 0) + (rate ? 1 : 0) + (delay ? 1 : 0) != 1)
+        {
+            throw new IllegalArgumentException("Exactly one of fixedRate, fixedDelay or cron must be specified.");
+        }
+        if (cron)
+        {
+            return scheduleCron(task, schedule.cron());
+        }
+        if (rate)
+        {
+            return scheduleAtFixedRate(task, schedule.initialDelay(), schedule.fixedRate(), schedule.unit());
+        }
+        return scheduleWithFixedDelay(task, schedule.initialDelay(), schedule.fixedDelay(), schedule.unit());
+    }
+
+    @Override
+    public synchronized void shutdown()
+    {
+        if (executor == null)
+        {
+            return;
+        }
+        //the pending executions are cancelled, the running ones can end.
+        executor.shutdown();
+        try
+        {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS))
+            {
+                LOG.log(Level.WARNING, "The scheduled tasks did not end in {0} seconds, interrupting them.", SHUTDOWN_TIMEOUT);
+                executor.shutdownNow();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        //the next task scheduled starts a new pool.
+        executor = null;
+        removeShutdownHook();
+    }
+
+    private void removeShutdownHook()
+    {
+        if (shutdownHook != null && Thread.currentThread() != shutdownHook)
+        {
+            try
+            {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            }
+            catch (IllegalStateException e)
+            {
+                //the JVM is already shutting down.
+            }
+        }
+        shutdownHook = null;
+    }
+
+    private ScheduledThreadPoolExecutor findExecutor()
+    {
+        if (executor == null)
+        {
+            synchronized (this)
+            {
+                if (executor == null)
+                {
+                    executor = createExecutor();
+                }
+            }
+        }
+        return executor;
+    }
+
+    private ScheduledThreadPoolExecutor createExecutor()
+    {
+        int threads = Math.max(1, Integer.getInteger(THREADS_PROPERTY, 2));
+        AtomicInteger count = new AtomicInteger();
+        ScheduledThreadPoolExecutor result = new ScheduledThreadPoolExecutor(threads, r ->
+        {
+            Thread thread = new Thread(r, "bridje-scheduler-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        result.setRemoveOnCancelPolicy(true);
+        result.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        shutdownHook = new Thread(this::shutdown, "bridje-scheduler-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        return result;
+    }
+
+    /**
+     * Logs the exceptions of the task, so the next executions are not
+     * cancelled by the executor.
+     */
+    private Runnable safe(Runnable task)
+    {
+        return () ->
+        {
+            try
+            {
+                task.run();
+            }
+            catch (RuntimeException e)
+            {
+                LOG.log(Level.SEVERE, String.format("The scheduled task %s failed.", task), e);
+            }
+        };
+    }
+
+    /**
+     * A task that schedules itself again after each execution, at the next
+     * time that matches its cron expression.
+     */
+    private class CronTask implements Runnable, Future<Object>
+    {
+        private final Runnable task;
+
+        private final CronSchedule schedule;
+
+        private final ScheduledThreadPoolExecutor executor;
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private ScheduledFuture<?> current;
+
+        private ZonedDateTime previous;
+
+        private volatile boolean cancelled;
+
+        CronTask(Runnable task, CronSchedule schedule, ScheduledThreadPoolExecutor executor)
+        {
+            this.task = task;
+            this.schedule = schedule;
+            this.executor = executor;
+        }
+
+        @Override
+        public void run()
+        {
+            task.run();
+            scheduleNext();
+        }
+
+        synchronized void scheduleNext()
+        {
+            if (cancelled)
+            {
+                return;
+            }
+            //the executor may run the task a little early, so the next time is
+            //searched after the previous one to not run it twice in a minute.
+            ZonedDateTime now = ZonedDateTime.now();
+            ZonedDateTime base = previous != null && previous.isAfter(now) ? previous : now;
+            ZonedDateTime next = schedule.next(base);
+            if (next == null)
+            {
+                LOG.log(Level.WARNING, "The cron expression of the task {0} will not match again.", task);
+                done.countDown();
+                return;
+            }
+            previous = next;
+            try
+            {
+                //always the same pool, so the task ends with the shutdown.
+                current = executor.schedule(this, Math.max(0, Duration.between(now, next).toMillis()), TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException e)
+            {
+                //the scheduler was shut down.
+                done.countDown();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning)
+        {
+            ScheduledFuture<?> future;
+            //synchronized with scheduleNext, so no execution is scheduled
+            //after the task is cancelled.
+            synchronized (this)
+            {
+                cancelled = true;
+                future = current;
+            }
+            if (future != null)
+            {
+                future.cancel(mayInterruptIfRunning);
+            }
+            done.countDown();
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled()
+        {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone()
+        {
+            return done.getCount() == 0;
+        }
+
+        @Override
+        public Object get() throws InterruptedException
+        {
+            done.await();
+            if (cancelled)
+            {
+                throw new CancellationException();
+            }
+            return null;
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException
+        {
+            if (!done.await(timeout, unit))
+            {
+                throw new TimeoutException();
+            }
+            if (cancelled)
+            {
+                throw new CancellationException();
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.ioc.thls;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Represents the point in time after witch the result of a unit of work (like
+ * an HTTP request) is no longer needed. The deadline is put in the thread local
+ * storage so the code running the work can check it, and blocking operations
+ * like database statements can register actions to be called when the work is
+ * cancelled.
+ */
+public final class Deadline
+{
+    private static final Logger LOG = Logger.getLogger(Deadline.class.getName());
+
+    private final long expiresAt;
+
+    private final Set<Runnable> cancelActions;
+
+    private volatile boolean cancelled;
+
+    private Deadline(long expiresAt)
+    {
+        this.expiresAt = expiresAt;
+        this.cancelActions = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Creates a new deadline that will expire after the given time.
+     *
+     * @param timeout The time until the deadline expires.
+     * @param unit    The unit of the timeout.
+     *
+     * @return The new created deadline.
+     */
+    public static Deadline after(long timeout, TimeUnit unit)
+    {
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * The time left before this deadline expires.
+     *
+     * @param unit The unit for the result.
+     *
+     * @return The time left in the given unit, 0 if the deadline has expired.
+     */
+    public long remaining(TimeUnit unit)
+    {
+        if (cancelled)
+        {
+            return 0;
+        }
+        long left = expiresAt - System.nanoTime();
+        return left > 0 ? unit.convert(left, TimeUnit.NANOSECONDS) : 0;
+    }
+
+    /**
+     * Determines if the work for this deadline must stop, because the time has
+     * passed or because it was cancelled.
+     *
+     * @return true the deadline has expired, false otherwise.
+     */
+    public boolean isExpired()
+    {
+        return cancelled || expiresAt - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Registers an action to be called when this deadline is cancelled. If the
+     * deadline is already cancelled the action is called immediately.
+     *
+     * @param action The action to call.
+     */
+    public void onCancel(Runnable action)
+    {
+        cancelActions.add(action);
+        if (cancelled && cancelActions.remove(action))
+        {
+            run(action);
+        }
+    }
+
+    /**
+     * Removes an action previously registered with the onCancel method, this
+     * must be called once the blocking operation is done.
+     *
+     * @param action The action to remove.
+     */
+    public void removeOnCancel(Runnable action)
+    {
+        cancelActions.remove(action);
+    }
+
+    /**
+     * Cancels the work of this deadline calling all the registered actions.
+     */
+    public void cancel()
+    {
+        cancelled = true;
+        for (Runnable action : cancelActions)
+        {
+            if (cancelActions.remove(action))
+            {
+                run(action);
+            }
+        }
+    }
+
+    private void run(Runnable action)
+    {
+        try
+        {
+            action.run();
+        }
+        catch (RuntimeException e)
+        {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+    }
+}
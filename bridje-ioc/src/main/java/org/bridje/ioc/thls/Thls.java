@@ -16,6 +16,12 @@
 
 package org.bridje.ioc.thls;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 import org.bridje.ioc.Ioc;
 
 /**
@@ -120,4 +126,166 @@ public class Thls
         return thlsServ.doAsEx2(action, cls, data);
     }
 
+    /**
+     * Puts the data object in the thread local storage without executing an
+     * action. It must be followed by a call to the pop method with the
+     * returned object, usually in a finally block.
+     *
+     * @param <D>  The type of the data to be put in the thread.
+     * @param cls  The class of the data to be put in the thread.
+     * @param data The data that must be available.
+     *
+     * @return The object of the same class that was available before this
+     *         call, it must be given to the pop method.
+     */
+    public static <D> D push(Class<D> cls, D data)
+    {
+        if (thlsServ == null)
+        {
+            thlsServ = Ioc.context().find(ThlsService.class);
+        }
+        return thlsServ.push(cls, data);
+    }
+
+    /**
+     * Removes the data object put in the thread local storage by the push
+     * method, restoring the previous one.
+     *
+     * @param <D>      The type of the data.
+     * @param cls      The class of the data.
+     * @param previous The object returned by the push method.
+     */
+    public static <D> void pop(Class<D> cls, D previous)
+    {
+        if (thlsServ == null)
+        {
+            thlsServ = Ioc.context().find(ThlsService.class);
+        }
+        thlsServ.pop(cls, previous);
+    }
+
+    /**
+     * Creates a task that will run with the data objects available in the
+     * current thread at the moment of this call.
+     *
+     * @param task The task to wrap.
+     *
+     * @return The new task.
+     */
+    public static Runnable wrap(Runnable task)
+    {
+        if (thlsServ == null)
+        {
+            thlsServ = Ioc.context().find(ThlsService.class);
+        }
+        return thlsServ.wrap(task);
+    }
+
+    /**
+     * Creates a task that will run with the data objects available in the
+     * current thread at the moment of this call.
+     *
+     * @param <T>  The type of the result of the task.
+     * @param task The task to wrap.
+     *
+     * @return The new task.
+     */
+    public static <T> Callable<T> wrap(Callable<T> task)
+    {
+        if (thlsServ == null)
+        {
+            thlsServ = Ioc.context().find(ThlsService.class);
+        }
+        return thlsServ.wrap(task);
+    }
+
+    /**
+     * Creates an executor that runs the tasks in the given executor with the
+     * data objects available in the thread that submitted them.
+     *
+     * @param executor The executor that will run the tasks.
+     *
+     * @return The new executor.
+     */
+    public static Executor executor(Executor executor)
+    {
+        return task -> executor.execute(wrap(task));
+    }
+
+    /**
+     * Creates an executor service that runs the tasks in the given executor
+     * service with the data objects available in the thread that submitted
+     * them. Shutting down the returned executor service shuts down the given
+     * one.
+     *
+     * @param executor The executor service that will run the tasks.
+     *
+     * @return The new executor service.
+     */
+    public static ExecutorService executorService(ExecutorService executor)
+    {
+        return new ThlsExecutorService(executor);
+    }
+
+    /**
+     * Runs the supplier in the given executor with the data objects available
+     * in the current thread. The async stages of the returned future that
+     * receive the same executor will also see the data objects.
+     * <pre>
+     * CompletableFuture&lt;List&lt;User&gt;&gt; users = Thls.supplyAsync(() -&gt; findUsers(), executor);
+     * CompletableFuture&lt;List&lt;Group&gt;&gt; groups = Thls.supplyAsync(() -&gt; findGroups(), executor);
+     * </pre>
+     *
+     * @param <T>      The type of the result.
+     * @param supplier The supplier to run.
+     * @param executor The executor that will run the supplier.
+     *
+     * @return The future of the result of the supplier.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor)
+    {
+        return CompletableFuture.supplyAsync(supplier, executor(executor));
+    }
+
+    /**
+     * Runs the supplier in the common pool with the data objects available in
+     * the current thread.
+     *
+     * @param <T>      The type of the result.
+     * @param supplier The supplier to run.
+     *
+     * @return The future of the result of the supplier.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier)
+    {
+        return supplyAsync(supplier, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs the task in the given executor with the data objects available in
+     * the current thread.
+     *
+     * @param task     The task to run.
+     * @param executor The executor that will run the task.
+     *
+     * @return The future of the completion of the task.
+     */
+    public static CompletableFuture<Void> runAsync(Runnable task, Executor executor)
+    {
+        return CompletableFuture.runAsync(task, executor(executor));
+    }
+
+    /**
+     * Runs the task in the common pool with the data objects available in the
+     * current thread.
+     *
+     * @param task The task to run.
+     *
+     * @return The future of the completion of the task.
+     */
+    public static CompletableFuture<Void> runAsync(Runnable task)
+    {
+        return runAsync(task, ForkJoinPool.commonPool());
+    }
+
 }
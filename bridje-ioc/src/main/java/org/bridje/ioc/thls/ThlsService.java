@@ -16,6 +16,8 @@
 
 package org.bridje.ioc.thls;
 
+import java.util.concurrent.Callable;
+
 /**
  * This service allows you to execute an action with a group of data objects
  * that will be available in the thread.
@@ -89,4 +91,79 @@ public interface ThlsService
      */
     <T> T get(Class<T> cls);
 
+    /**
+     * Puts the data object in the thread local storage without executing an
+     * action, this allows to avoid the creation of the action object in hot
+     * code paths. It must be followed by a call to the pop method with the
+     * returned object, usually in a finally block.
+     * <pre>
+     * User previous = thlsServ.push(User.class, user);
+     * try
+     * {
+     *     ...
+     * }
+     * finally
+     * {
+     *     thlsServ.pop(User.class, previous);
+     * }
+     * </pre>
+     *
+     * @param <D>  The type of the data to be put in the thread.
+     * @param cls  The class of the data to be put in the thread.
+     * @param data The data that must be available.
+     *
+     * @return The object of the same class that was available before this
+     *         call, it must be given to the pop method.
+     */
+    <D> D push(Class<D> cls, D data);
+
+    /**
+     * Removes the data object put in the thread local storage by the push
+     * method, restoring the previous one.
+     *
+     * @param <D>      The type of the data.
+     * @param cls      The class of the data.
+     * @param previous The object returned by the push method.
+     */
+    <D> void pop(Class<D> cls, D previous);
+
+    /**
+     * Creates a task that will run with the data objects available in the
+     * current thread at the moment of this call, so it can be executed in
+     * another thread.
+     * <p>
+     * The objects are shared, not copied. The IoC context of a request scope
+     * can be used by several threads at the same time, but the objects of a
+     * request, like its response, are only valid until the request is handled,
+     * so the task must end before that.
+     *
+     * @param task The task to wrap.
+     *
+     * @return The new task.
+     */
+    Runnable wrap(Runnable task);
+
+    /**
+     * Creates a task that will run with the data objects available in the
+     * current thread at the moment of this call, so it can be executed in
+     * another thread.
+     *
+     * @param <T>  The type of the result of the task.
+     * @param task The task to wrap.
+     *
+     * @return The new task.
+     */
+    <T> Callable<T> wrap(Callable<T> task);
+
+    /**
+     * Creates a task that will run without any data object, whatever thread
+     * runs it. The data objects of that thread are restored when the task
+     * ends.
+     *
+     * @param task The task to isolate.
+     *
+     * @return The new task.
+     */
+    Runnable isolate(Runnable task);
+
 }
@@ -16,6 +16,7 @@
 
 package org.bridje.ioc.thls.impl;
 
+import java.util.concurrent.Callable;
 import org.bridje.ioc.Component;
 import org.bridje.ioc.thls.ThlsAction;
 import org.bridje.ioc.thls.ThlsActionException;
@@ -35,42 +36,42 @@ class ThlsServiceImpl implements ThlsService
     @Override
     public <T, D> T doAs(ThlsAction<T> action, Class<D> cls, D data)
     {
-        threadLocalStorage.put(cls, data);
+        D previous = threadLocalStorage.push(cls, data);
         try
         {
             return action.execute();
         }
         finally
         {
-            threadLocalStorage.pop(cls);
+            threadLocalStorage.pop(cls, previous);
         }
     }
 
     @Override
     public <T, D, E extends Throwable> T doAsEx(ThlsActionException<T, E> action, Class<D> cls, D data) throws E
     {
-        threadLocalStorage.put(cls, data);
+        D previous = threadLocalStorage.push(cls, data);
         try
         {
             return action.execute();
         }
         finally
         {
-            threadLocalStorage.pop(cls);
+            threadLocalStorage.pop(cls, previous);
         }
     }
     
     @Override
     public <T, D, E extends Throwable, E2 extends Throwable> T doAsEx2(ThlsActionException2<T, E, E2> action, Class<D> cls, D data) throws E, E2
     {
-        threadLocalStorage.put(cls, data);
+        D previous = threadLocalStorage.push(cls, data);
         try
         {
             return action.execute();
         }
         finally
         {
-            threadLocalStorage.pop(cls);
+            threadLocalStorage.pop(cls, previous);
         }
     }
 
@@ -80,4 +81,75 @@ class ThlsServiceImpl implements ThlsService
         return threadLocalStorage.get(cls);
     }
 
+    @Override
+    public <D> D push(Class<D> cls, D data)
+    {
+        return threadLocalStorage.push(cls, data);
+    }
+
+    @Override
+    public <D> void pop(Class<D> cls, D previous)
+    {
+        threadLocalStorage.pop(cls, previous);
+    }
+
+    @Override
+    public Runnable wrap(Runnable task)
+    {
+        Object[] snapshot = threadLocalStorage.capture();
+        return () ->
+        {
+            Object[] previous = threadLocalStorage.restore(copy(snapshot));
+            try
+            {
+                task.run();
+            }
+            finally
+            {
+                threadLocalStorage.restore(previous);
+            }
+        };
+    }
+
+    @Override
+    public <T> Callable<T> wrap(Callable<T> task)
+    {
+        Object[] snapshot = threadLocalStorage.capture();
+        return () ->
+        {
+            Object[] previous = threadLocalStorage.restore(copy(snapshot));
+            try
+            {
+                return task.call();
+            }
+            finally
+            {
+                threadLocalStorage.restore(previous);
+            }
+        };
+    }
+
+    @Override
+    public Runnable isolate(Runnable task)
+    {
+        return () ->
+        {
+            Object[] previous = threadLocalStorage.restore(null);
+            try
+            {
+                task.run();
+            }
+            finally
+            {
+                threadLocalStorage.restore(previous);
+            }
+        };
+    }
+
+    private Object[] copy(Object[] snapshot)
+    {
+        //the same task may run more than once or in more than one thread.
+        return snapshot == null ? null : snapshot.clone();
+    }
+
 }
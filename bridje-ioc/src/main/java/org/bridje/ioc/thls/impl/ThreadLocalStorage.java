@@ -16,14 +16,30 @@
 
 package org.bridje.ioc.thls.impl;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * The thread local storage of the ThlsService. Every class used as a key gets
+ * a slot number the first time it is used, and each thread keeps an array with
+ * the current object for each slot. The previous object is kept by the caller
+ * of the push method and given back to the pop method, so the stack of objects
+ * of each class lives in the call stack and no allocation is needed.
+ */
 class ThreadLocalStorage
 {
-    private final ThreadLocal<Map<Class, List<Object>>> threadLocalStorage;
+    private static final AtomicInteger SLOT_COUNT = new AtomicInteger();
+
+    private static final ClassValue<Integer> SLOTS = new ClassValue<Integer>()
+    {
+        @Override
+        protected Integer computeValue(Class<?> type)
+        {
+            return SLOT_COUNT.getAndIncrement();
+        }
+    };
+
+    private final ThreadLocal<Object[]> threadLocalStorage;
 
     public ThreadLocalStorage()
     {
@@ -32,46 +48,56 @@ class ThreadLocalStorage
 
     public <T> T get(Class<T> cls)
     {
-        Map<Class, List<Object>> map = threadLocalStorage.get();
-        if (map != null)
+        Object[] objects = threadLocalStorage.get();
+        int slot = SLOTS.get(cls);
+        if (objects != null && slot < objects.length)
         {
-            List<Object> objects = map.get(cls);
-            if (objects != null && !objects.isEmpty())
-            {
-                return (T) objects.get(objects.size() - 1);
-            }
+            return (T) objects[slot];
         }
         return null;
     }
 
-    public <T> void pop(Class<T> cls)
+    public <T> T push(Class<T> cls, T obj)
     {
-        Map<Class, List<Object>> map = threadLocalStorage.get();
-        if (map != null)
+        int slot = SLOTS.get(cls);
+        Object[] objects = threadLocalStorage.get();
+        if (objects == null || slot >= objects.length)
         {
-            List<Object> objects = map.get(cls);
-            if (objects != null && !objects.isEmpty())
-            {
-                objects.remove(objects.size() - 1);
-            }
+            objects = grow(objects, slot);
         }
+        T previous = (T) objects[slot];
+        objects[slot] = obj;
+        return previous;
     }
 
-    public <T> void put(Class<T> cls, T obj)
+    public <T> void pop(Class<T> cls, T previous)
     {
-        Map<Class, List<Object>> map = threadLocalStorage.get();
-        if (map == null)
-        {
-            map = new HashMap<>();
-            threadLocalStorage.set(map);
-        }
-        List<Object> objects = map.get(cls);
-        if (objects == null)
+        Object[] objects = threadLocalStorage.get();
+        int slot = SLOTS.get(cls);
+        if (objects != null && slot < objects.length)
         {
-            objects = new ArrayList<>();
-            map.put(cls, objects);
+            objects[slot] = previous;
         }
-        objects.add(obj);
     }
 
+    public Object[] capture()
+    {
+        Object[] objects = threadLocalStorage.get();
+        return objects == null ? null : objects.clone();
+    }
+
+    public Object[] restore(Object[] objects)
+    {
+        Object[] previous = threadLocalStorage.get();
+        threadLocalStorage.set(objects);
+        return previous;
+    }
+
+    private Object[] grow(Object[] objects, int slot)
+    {
+        int size = Math.max(slot + 1, SLOT_COUNT.get());
+        Object[] result = objects == null ? new Object[size] : Arrays.copyOf(objects, size);
+        threadLocalStorage.set(result);
+        return result;
+    }
 }
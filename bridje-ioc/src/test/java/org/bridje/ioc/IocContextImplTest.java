@@ -2,10 +2,21 @@
 package org.bridje.ioc;
 
 import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.bridje.ioc.test.*;
 import org.bridje.ioc.test.chain.ChainTest;
 import org.bridje.ioc.test.context.ContextInject;
+import org.bridje.ioc.test.lazy.*;
 import org.bridje.ioc.test.priority.*;
+import org.bridje.ioc.test.scope.ScopedComponent;
+import org.bridje.ioc.test.scope.TestScope;
+import org.bridje.ioc.thls.Thls;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
@@ -102,4 +113,117 @@ public class IocContextImplTest
         assertNotNull(ctxInj.getAppCtx());
         assertEquals(instance, ctxInj.getAppCtx());
     }
+
+    @Test
+    public void testFindAllIndependent()
+    {
+        IocContext<Application> instance = Ioc.context();
+
+        SomeService[] first = instance.findAll(SomeService.class);
+        SomeService[] second = instance.findAll(SomeService.class);
+        assertNotSame(first, second);
+        assertArrayEquals(first, second);
+
+        first[0] = null;
+        assertNotNull(instance.findAll(SomeService.class)[0]);
+        assertNotNull(second[0]);
+
+        SomeService[] injected = (SomeService[])instance.findGeneric(SomeService[].class);
+        injected[0] = null;
+        assertNotNull(((SomeService[])instance.findGeneric(SomeService[].class))[0]);
+    }
+
+    @Test
+    public void testLazyProxy()
+    {
+        IocContext<Application> instance = Ioc.context();
+
+        LazyComponent lazy = instance.find(LazyComponent.class);
+        SomeService service = lazy.getService();
+        assertNotNull(service);
+        assertFalse(service instanceof DummyServiceProvider);
+
+        SomeService real = instance.find(SomeService.class);
+        assertTrue(service.equals(real));
+        assertTrue(service.equals(service));
+        assertEquals(real.hashCode(), service.hashCode());
+        assertEquals(real.toString(), service.toString());
+
+        //no component provides the service, so the field is not proxied.
+        assertNull(lazy.getMissing());
+    }
+
+    @Test
+    public void testLazyProxyWithoutComponent() throws Exception
+    {
+        Class<?> proxyClass = Class.forName(LazyComponent.class.getName() + "_missing_IocLazy");
+        Constructor<?> constructor = proxyClass.getDeclaredConstructor(Provider.class);
+        constructor.setAccessible(true);
+        Provider<MissingService> provider = () -> null;
+        MissingService missing = (MissingService)constructor.newInstance(provider);
+        try
+        {
+            missing.execute();
+            fail("The proxy must fail when there is no component.");
+        }
+        catch (IllegalStateException e)
+        {
+            assertTrue(e.getMessage().contains(MissingService.class.getName()));
+        }
+    }
+
+    @Test
+    public void testChildContextFromThreads() throws Exception
+    {
+        int threads = 8;
+        ExecutorService executor = Thls.executorService(Executors.newFixedThreadPool(threads));
+        try
+        {
+            for (int i = 0; i < 20; i++)
+            {
+                TestScope scope = new TestScope();
+                IocContext<TestScope> child = Ioc.context().createChild(scope);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Object[]>> results = new ArrayList<>();
+                TestScope previous = Thls.push(TestScope.class, scope);
+                try
+                {
+                    for (int j = 0; j < threads; j++)
+                    {
+                        results.add(executor.submit(() ->
+                        {
+                            start.await();
+                            return new Object[]
+                            {
+                                Thls.get(TestScope.class),
+                                child.find(ScopedComponent.class),
+                                child.findGeneric(ScopedComponent.class),
+                                child.findAll(SomeService.class),
+                                child.find(DummyComponent.class)
+                            };
+                        }));
+                    }
+                }
+                finally
+                {
+                    Thls.pop(TestScope.class, previous);
+                }
+                start.countDown();
+                ScopedComponent expected = child.find(ScopedComponent.class);
+                for (Future<Object[]> result : results)
+                {
+                    Object[] values = result.get();
+                    assertSame(scope, values[0]);
+                    assertSame(expected, values[1]);
+                    assertSame(expected, values[2]);
+                    assertArrayEquals(child.findAll(SomeService.class), (Object[])values[3]);
+                    assertSame(Ioc.context().find(DummyComponent.class), values[4]);
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
 }
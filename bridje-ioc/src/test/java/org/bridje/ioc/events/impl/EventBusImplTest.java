@@ -0,0 +1,113 @@
+package org.bridje.ioc.events.impl;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.bridje.ioc.Ioc;
+import org.bridje.ioc.events.EventBus;
+import org.bridje.ioc.test.events.*;
+import org.bridje.ioc.thls.Thls;
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class EventBusImplTest
+{
+    @BeforeClass
+    public static void setUpClass()
+    {
+        //a single thread with a single pending delivery, so the queue fills up.
+        System.setProperty(EventBus.THREADS_PROPERTY, "1");
+        System.setProperty(EventBus.QUEUE_SIZE_PROPERTY, "1");
+    }
+
+    @Test
+    public void testSyncDelivery() throws InterruptedException
+    {
+        EventBus bus = Ioc.context().find(EventBus.class);
+        SyncEventListener listener = Ioc.context().find(SyncEventListener.class);
+        RequestData data = new RequestData("sync");
+        Thls.doAs(() ->
+        {
+            bus.publish(new SyncEvent("sync"));
+            return null;
+        }, RequestData.class, data);
+
+        Delivery delivery = listener.getDeliveries().poll();
+        assertNotNull(delivery);
+        assertEquals("sync", delivery.getEvent());
+        assertSame(Thread.currentThread(), delivery.getThread());
+        assertSame(data, delivery.getData());
+    }
+
+    @Test
+    public void testAsyncDelivery() throws InterruptedException
+    {
+        EventBus bus = Ioc.context().find(EventBus.class);
+        AsyncEventListener listener = Ioc.context().find(AsyncEventListener.class);
+        RequestData data = new RequestData("async");
+        Thls.doAs(() ->
+        {
+            bus.publish(new AsyncEvent("async"));
+            assertSame(data, Thls.get(RequestData.class));
+            return null;
+        }, RequestData.class, data);
+
+        Delivery delivery = listener.getDeliveries().poll(10, TimeUnit.SECONDS);
+        assertNotNull(delivery);
+        assertEquals("async", delivery.getEvent());
+        assertTrue(delivery.getThread().getName().startsWith("bridje-events-"));
+        //the thread local data of the publisher is not passed to the listener.
+        assertNull(delivery.getData());
+    }
+
+    @Test
+    public void testFailingListener()
+    {
+        EventBus bus = Ioc.context().find(EventBus.class);
+        FailingEventListener listener = Ioc.context().find(FailingEventListener.class);
+        bus.publish(new FailingEvent());
+        bus.publish(new FailingEvent());
+        assertEquals(2, listener.getDeliveries().size());
+    }
+
+    @Test(timeout = 10000)
+    public void testCallerRunsWhenFull() throws InterruptedException
+    {
+        EventBus bus = Ioc.context().find(EventBus.class);
+        AsyncEventListener listener = Ioc.context().find(AsyncEventListener.class);
+        listener.getDeliveries().clear();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try
+        {
+            bus.publish(new AsyncEvent("blocking", started, release));
+            started.await();
+            assertEquals("blocking", listener.getDeliveries().take().getEvent());
+            bus.publish(new AsyncEvent("queued"));
+
+            RequestData data = new RequestData("full");
+            Thls.doAs(() ->
+            {
+                bus.publish(new AsyncEvent("full"));
+                assertSame(data, Thls.get(RequestData.class));
+                return null;
+            }, RequestData.class, data);
+
+            //the thread of the bus is busy and the queue is full, so the
+            //publisher delivers the event, without its thread local data.
+            Delivery delivery = listener.getDeliveries().poll();
+            assertNotNull(delivery);
+            assertEquals("full", delivery.getEvent());
+            assertSame(Thread.currentThread(), delivery.getThread());
+            assertNull(delivery.getData());
+        }
+        finally
+        {
+            release.countDown();
+        }
+        Delivery queued = listener.getDeliveries().poll(10, TimeUnit.SECONDS);
+        assertNotNull(queued);
+        assertEquals("queued", queued.getEvent());
+        assertNull(queued.getData());
+    }
+}
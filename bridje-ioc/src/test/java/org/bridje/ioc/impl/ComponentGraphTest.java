@@ -0,0 +1,25 @@
+package org.bridje.ioc.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.bridje.ioc.test.lazy.LazyComponent;
+import org.bridje.ioc.test.lazy.MissingService;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class ComponentGraphTest
+{
+    @Test
+    public void testValidate() throws IOException
+    {
+        List<String> errors = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        ComponentGraph.validate(errors, warnings);
+
+        //no component of the test classes provides the missing service.
+        String missing = "Unsatisfied dependency " + LazyComponent.class.getName() + ".missing of " + LazyComponent.class.getName()
+                + " (Application), no component provides " + MissingService.class.getName() + ".";
+        assertTrue(errors.contains(missing));
+    }
+}
@@ -0,0 +1,53 @@
+package org.bridje.ioc.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class ComponentIndexTest
+{
+    @Test
+    public void testReadWrite() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        ComponentIndex.writeHeader(out);
+        ComponentIndex.write(out, new ComponentIndex.Entry("a.Comp", "org.bridje.ioc.Application", 10, true, false, new String[]{"a.Comp", "a.Service"}));
+        ComponentIndex.writeFiles(out, Arrays.asList("BRIDJE-INF/web/ioc-components.properties"));
+        out.close();
+
+        List<String> files = new ArrayList<>();
+        List<ComponentIndex.Entry> entries = ComponentIndex.read(new ByteArrayInputStream(bytes.toByteArray()), files);
+        assertEquals(1, entries.size());
+        ComponentIndex.Entry entry = entries.get(0);
+        assertEquals("a.Comp", entry.getClassName());
+        assertEquals("org.bridje.ioc.Application", entry.getScope());
+        assertEquals(10, entry.getPriority());
+        assertTrue(entry.isEager());
+        assertFalse(entry.isScheduled());
+        assertArrayEquals(new String[]{"a.Comp", "a.Service"}, entry.getServices());
+        assertEquals(Arrays.asList("BRIDJE-INF/web/ioc-components.properties"), files);
+    }
+
+    @Test
+    public void testClassPathIndex() throws IOException
+    {
+        //the index of the test classes is written by the processor with its
+        //last record, so the test classes folder is not scanned.
+        List<String> files = new ArrayList<>();
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(ComponentIndex.INDEX_RESOURCE_FILE))
+        {
+            assertNotNull(is);
+            assertFalse(ComponentIndex.read(is, files).isEmpty());
+        }
+        assertTrue(files.isEmpty());
+        assertTrue(ClassSetLoader.instance().findScopeNames().contains("org.bridje.ioc.Application"));
+    }
+}
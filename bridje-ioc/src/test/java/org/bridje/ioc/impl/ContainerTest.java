@@ -0,0 +1,142 @@
+package org.bridje.ioc.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.bridje.ioc.Ioc;
+import org.bridje.ioc.IocContext;
+import org.bridje.ioc.test.DummyComponent;
+import org.bridje.ioc.test.scope.*;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class ContainerTest
+{
+    @Test
+    public void testCreate()
+    {
+        IocContext<TestScope> child = Ioc.context().createChild(new TestScope());
+        ScopedComponent comp = child.find(ScopedComponent.class);
+        assertNotNull(comp);
+        assertSame(comp, child.find(ScopedComponent.class));
+        assertSame(child, comp.getContext());
+        assertSame(Ioc.context().find(DummyComponent.class), comp.getDummy());
+        assertNull(Ioc.context().find(ScopedComponent.class));
+
+        IocContext<TestScope> other = Ioc.context().createChild(new TestScope());
+        assertNotSame(comp, other.find(ScopedComponent.class));
+    }
+
+    @Test
+    public void testScopeInstances()
+    {
+        TestScope scope = new TestScope();
+        ContextImpl<TestScope> child = (ContextImpl<TestScope>)Ioc.context().createChild(scope);
+        assertSame(scope, child.getScope());
+        assertSame(scope, child.createComponent(TestScope.class));
+        assertSame(child, child.createComponent(ContextImpl.class));
+    }
+
+    @Test
+    public void testConcurrentCreate() throws Exception
+    {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            for (int i = 0; i < 20; i++)
+            {
+                IocContext<TestScope> child = Ioc.context().createChild(new TestScope());
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<ScopedComponent>> results = new ArrayList<>();
+                for (int j = 0; j < threads; j++)
+                {
+                    Callable<ScopedComponent> task = () ->
+                    {
+                        start.await();
+                        return child.find(ScopedComponent.class);
+                    };
+                    results.add(executor.submit(task));
+                }
+                start.countDown();
+                ScopedComponent expected = results.get(0).get();
+                assertNotNull(expected);
+                for (Future<ScopedComponent> result : results)
+                {
+                    assertSame(expected, result.get());
+                }
+                assertSame(expected, child.find(ScopedComponent.class));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentInitialization() throws Exception
+    {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            IocContext<TestScope> child = Ioc.context().createChild(new TestScope());
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<SlowScopedComponent>> results = new ArrayList<>();
+            for (int j = 0; j < threads; j++)
+            {
+                Callable<SlowScopedComponent> task = () ->
+                {
+                    start.await();
+                    return child.find(SlowScopedComponent.class);
+                };
+                results.add(executor.submit(task));
+            }
+            start.countDown();
+            SlowScopedComponent expected = results.get(0).get();
+            for (Future<SlowScopedComponent> result : results)
+            {
+                //the threads that lost the creation wait for its initialization.
+                assertSame(expected, result.get());
+                assertTrue(result.get().isInitialized());
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testCircularCreationInThreads() throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            IocContext<TestScope> child = Ioc.context().createChild(new TestScope());
+            CountDownLatch start = new CountDownLatch(1);
+            Future<CycleFirst> first = executor.submit(() ->
+            {
+                start.await();
+                return child.find(CycleFirst.class);
+            });
+            Future<CycleSecond> second = executor.submit(() ->
+            {
+                start.await();
+                return child.find(CycleSecond.class);
+            });
+            start.countDown();
+            assertSame(second.get(), first.get().getOther());
+            assertSame(first.get(), second.get().getOther());
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.bridje.ioc.impl;
+
+import java.util.Arrays;
+import org.bridje.ioc.ComponentFactory;
+import org.bridje.ioc.Ioc;
+import org.bridje.ioc.IocContext;
+import org.bridje.ioc.test.DummyComponent;
+import org.bridje.ioc.test.factory.FactoryComponent;
+import org.bridje.ioc.test.lazy.LazyComponent;
+import org.bridje.ioc.test.listener.*;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class InstanciatorTest
+{
+    @Test
+    public void testContextListeners()
+    {
+        IocContext<ListenerScope> child = Ioc.context().createChild(new ListenerScope());
+        assertNotNull(child.find(ListenedComponent.class));
+        assertNotNull(child.find(OtherComponent.class));
+
+        TypedListener typed = child.find(TypedListener.class);
+        RawListener raw = child.find(RawListener.class);
+
+        //the typed listener is only called for the components of its service.
+        assertEquals(Arrays.asList("preCreate ListenedComponent", "preInit ListenedComponent", "postInit ListenedComponent"),
+                typed.getEvents());
+
+        //the untyped listener is called for every component.
+        assertTrue(raw.getEvents().containsAll(typed.getEvents()));
+        assertTrue(raw.getEvents().containsAll(Arrays.asList("preCreate OtherComponent", "preInit OtherComponent", "postInit OtherComponent")));
+
+        //the listeners are not called for other listeners.
+        assertFalse(raw.getEvents().contains("preCreate TypedListener"));
+        assertFalse(raw.getEvents().contains("preCreate RawListener"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGeneratedFactory()
+    {
+        ComponentFactory factory = new ClassCache(FactoryComponent.class).getFactory();
+        assertNotNull(factory);
+        assertEquals(FactoryComponent.class.getName() + ComponentProcessor.FACTORY_SUFFIX, factory.getClass().getName());
+
+        //the factory creates, injects and initializes the component by itself.
+        FactoryComponent created = (FactoryComponent)factory.create();
+        assertTrue(factory.inject(created, Ioc.context()));
+        assertTrue(factory.postConstruct(created));
+        assertSame(Ioc.context().find(DummyComponent.class), created.getDummy());
+        assertTrue(created.isInitialized());
+
+        FactoryComponent component = Ioc.context().find(FactoryComponent.class);
+        assertNotNull(component.getDummy());
+        assertTrue(component.isInitialized());
+
+        //private fields are left to the reflection based instanciator.
+        ComponentFactory lazyFactory = new ClassCache(LazyComponent.class).getFactory();
+        assertNotNull(lazyFactory);
+        assertFalse(lazyFactory.inject(lazyFactory.create(), Ioc.context()));
+    }
+}
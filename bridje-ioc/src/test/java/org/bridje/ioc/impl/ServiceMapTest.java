@@ -0,0 +1,126 @@
+package org.bridje.ioc.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import org.bridje.ioc.Application;
+import org.bridje.ioc.Ioc;
+import org.bridje.ioc.test.*;
+import org.bridje.ioc.test.chain.MyChainHandler;
+import org.bridje.ioc.test.next.*;
+import org.bridje.ioc.test.priority.*;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class ServiceMapTest
+{
+    @Test
+    public void testFindOneByPriority()
+    {
+        ServiceMap serviceMap = ServiceMap.findByScope(Application.class);
+        assertEquals(PriorityComp3.class, serviceMap.findOne(PriorityService.class));
+        assertEquals(PriorityComp3.class, serviceMap.findOne(PriorityService.class, -1));
+        assertEquals(PriorityComp1.class, serviceMap.findOne(PriorityService.class, 0));
+        assertEquals(PriorityComp4.class, serviceMap.findOne(PriorityService.class, 1));
+        assertEquals(PriorityComp4.class, serviceMap.findOne(PriorityService.class, 2));
+        assertEquals(PriorityComp2.class, serviceMap.findOne(PriorityService.class, 3));
+        assertEquals(PriorityComp2.class, serviceMap.findOne(PriorityService.class, Integer.MAX_VALUE - 1));
+        //components without priority are always the next ones.
+        assertEquals(PriorityComp2.class, serviceMap.findOne(PriorityService.class, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testFindOneMatchesLinearSearch()
+    {
+        ServiceMap serviceMap = ServiceMap.findByScope(Application.class);
+        int[] values = {Integer.MIN_VALUE, -1, 0, 1, 2, 3, 4, 5, 6, Integer.MAX_VALUE - 2, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+        for (Class<?> service : new Class<?>[]{PriorityService.class, NextHandler.class})
+        {
+            List<Class<?>> all = serviceMap.findAll(service);
+            for (int value : values)
+            {
+                Class<?> expected = null;
+                for (Class<?> cls : all)
+                {
+                    int priority = serviceMap.findPriority(cls);
+                    if (priority > value || priority == Integer.MAX_VALUE)
+                    {
+                        expected = cls;
+                        break;
+                    }
+                }
+                assertEquals(service.getName() + " " + value, expected, serviceMap.findOne(service, value));
+            }
+        }
+    }
+
+    @Test
+    public void testFindOneEdge()
+    {
+        ServiceMap serviceMap = ServiceMap.findByScope(Application.class);
+        assertEquals(NextHandlerFirst.class, serviceMap.findOne(NextHandler.class, 4));
+        assertEquals(NextHandlerEdge.class, serviceMap.findOne(NextHandler.class, 5));
+        assertEquals(NextHandlerEdge.class, serviceMap.findOne(NextHandler.class, Integer.MAX_VALUE - 2));
+        assertEquals(NextHandlerLast.class, serviceMap.findOne(NextHandler.class, Integer.MAX_VALUE - 1));
+        assertEquals(NextHandlerLast.class, serviceMap.findOne(NextHandler.class, Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE - 1, serviceMap.findPriority(NextHandlerEdge.class));
+        assertEquals(Integer.MAX_VALUE, serviceMap.findPriority(NextHandlerLast.class));
+    }
+
+    @Test
+    public void testInjectNextChain()
+    {
+        NextHandler handler = Ioc.context().find(NextHandler.class);
+        assertTrue(handler instanceof NextHandlerFirst);
+        assertEquals("first edge last", handler.execute());
+    }
+
+    @Test
+    public void testIndexMatchesScan() throws Exception
+    {
+        List<ComponentIndex.Entry> entries = readEntries();
+        assertFalse(entries.isEmpty());
+        List<Class<?>> classes = new ArrayList<>();
+        for (ComponentIndex.Entry entry : entries)
+        {
+            classes.add(Class.forName(entry.getClassName()));
+        }
+        ServiceMap scanned = new ServiceMap(new ClassSet(classes));
+        //the components of the index are loaded in a different order.
+        Collections.reverse(entries);
+        ServiceMap indexed = new ServiceMap(new ClassSet(Collections.emptyList(), entries));
+        assertEquals(DummyServiceProvider2.class, indexed.findOne(DummyServiceProvider2.class));
+
+        Class<?>[] services = {SomeService.class, PriorityService.class, MyChainHandler.class, NextHandler.class, Object.class};
+        for (Class<?> service : services)
+        {
+            assertEquals(service.getName(), scanned.findAll(service), indexed.findAll(service));
+            assertEquals(service.getName(), scanned.findOne(service), indexed.findOne(service));
+        }
+        assertEquals(DummyServiceProvider.class, indexed.findOne(SomeService.class));
+    }
+
+    private List<ComponentIndex.Entry> readEntries() throws IOException
+    {
+        List<ComponentIndex.Entry> result = new ArrayList<>();
+        Enumeration<URL> resources = getClass().getClassLoader().getResources(ComponentIndex.INDEX_RESOURCE_FILE);
+        while (resources.hasMoreElements())
+        {
+            try (InputStream is = resources.nextElement().openStream())
+            {
+                for (ComponentIndex.Entry entry : ComponentIndex.read(is))
+                {
+                    if (Application.class.getName().equals(entry.getScope()))
+                    {
+                        result.add(entry);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,94 @@
+package org.bridje.ioc.schedule.impl;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class CronScheduleTest
+{
+    @Test
+    public void testSteps()
+    {
+        CronSchedule schedule = new CronSchedule("*/15 * * * *");
+        assertEquals(time(2026, 10, 19, 10, 15), schedule.next(time(2026, 10, 19, 10, 7)));
+        //the next time is always after the given one.
+        assertEquals(time(2026, 10, 19, 10, 30), schedule.next(time(2026, 10, 19, 10, 15)));
+        assertEquals(time(2026, 10, 19, 11, 0), schedule.next(time(2026, 10, 19, 10, 45)));
+
+        schedule = new CronSchedule("0 */6 * * *");
+        assertEquals(time(2026, 10, 19, 12, 0), schedule.next(time(2026, 10, 19, 7, 0)));
+        assertEquals(time(2026, 10, 20, 0, 0), schedule.next(time(2026, 10, 19, 18, 0)));
+
+        schedule = new CronSchedule("5/20 * * * *");
+        assertEquals(time(2026, 10, 19, 10, 25), schedule.next(time(2026, 10, 19, 10, 5)));
+        assertEquals(time(2026, 10, 19, 11, 5), schedule.next(time(2026, 10, 19, 10, 45)));
+    }
+
+    @Test
+    public void testRanges()
+    {
+        CronSchedule schedule = new CronSchedule("0,30 9-17 * * 1-5");
+        assertEquals(time(2026, 10, 19, 9, 30), schedule.next(time(2026, 10, 19, 9, 0)));
+        assertEquals(time(2026, 10, 19, 9, 0), schedule.next(time(2026, 10, 19, 6, 10)));
+        //from friday evening to monday morning.
+        assertEquals(time(2026, 10, 19, 9, 0), schedule.next(time(2026, 10, 16, 17, 30)));
+
+        schedule = new CronSchedule("0 0 1 1-3/2 *");
+        assertEquals(time(2027, 1, 1, 0, 0), schedule.next(time(2026, 10, 19, 0, 0)));
+        assertEquals(time(2027, 3, 1, 0, 0), schedule.next(time(2027, 1, 1, 0, 0)));
+    }
+
+    @Test
+    public void testDayOfMonthOrDayOfWeek()
+    {
+        //the 13th of the month or any monday.
+        CronSchedule schedule = new CronSchedule("0 0 13 * 1");
+        assertEquals(time(2026, 10, 12, 0, 0), schedule.next(time(2026, 10, 10, 0, 0)));
+        assertEquals(time(2026, 10, 13, 0, 0), schedule.next(time(2026, 10, 12, 0, 0)));
+        assertEquals(time(2026, 10, 19, 0, 0), schedule.next(time(2026, 10, 13, 0, 0)));
+
+        //only the day of the week restricted.
+        schedule = new CronSchedule("0 0 * * 5");
+        assertEquals(time(2026, 10, 2, 0, 0), schedule.next(time(2026, 10, 1, 12, 0)));
+
+        //only the day of the month restricted.
+        schedule = new CronSchedule("0 0 13 * *");
+        assertEquals(time(2026, 11, 13, 0, 0), schedule.next(time(2026, 10, 13, 0, 0)));
+
+        //7 is sunday as 0.
+        assertEquals(new CronSchedule("0 0 * * 0").next(time(2026, 10, 13, 0, 0)),
+                new CronSchedule("0 0 * * 7").next(time(2026, 10, 13, 0, 0)));
+        assertEquals(time(2026, 10, 18, 0, 0), new CronSchedule("0 0 * * 7").next(time(2026, 10, 13, 0, 0)));
+    }
+
+    @Test
+    public void testNeverMatches()
+    {
+        assertNull(new CronSchedule("0 0 31 2 *").next(time(2026, 10, 19, 0, 0)));
+        assertNull(new CronSchedule("0 0 30 2 *").next(time(2026, 10, 19, 0, 0)));
+        assertEquals(time(2028, 2, 29, 0, 0), new CronSchedule("0 0 29 2 *").next(time(2026, 10, 19, 0, 0)));
+    }
+
+    @Test
+    public void testInvalidExpressions()
+    {
+        String[] expressions = {"* * * *", "60 * * * *", "* 24 * * *", "* * 0 * *", "* * * 13 *", "* * * * 8", "*/0 * * * *", "5-1 * * * *", "a * * * *"};
+        for (String expression : expressions)
+        {
+            try
+            {
+                new CronSchedule(expression);
+                fail("Expected an invalid expression: " + expression);
+            }
+            catch (IllegalArgumentException e)
+            {
+            }
+        }
+    }
+
+    private static ZonedDateTime time(int year, int month, int day, int hour, int minute)
+    {
+        return ZonedDateTime.of(year, month, day, hour, minute, 0, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,45 @@
+package org.bridje.ioc.schedule.impl;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.bridje.ioc.Ioc;
+import org.bridje.ioc.schedule.Scheduler;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class SchedulerImplTest
+{
+    @Test
+    public void testScheduleAfterShutdown() throws InterruptedException
+    {
+        SchedulerImpl scheduler = new SchedulerImpl();
+        CountDownLatch first = new CountDownLatch(1);
+        Future<?> future = scheduler.scheduleWithFixedDelay(first::countDown, 0, 10, TimeUnit.MILLISECONDS);
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+
+        scheduler.shutdown();
+        assertTrue(future.isCancelled());
+
+        //a new pool is started for the tasks scheduled after the shutdown.
+        CountDownLatch second = new CountDownLatch(1);
+        scheduler.scheduleWithFixedDelay(second::countDown, 0, 10, TimeUnit.MILLISECONDS);
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+        scheduler.shutdown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testStop() throws InterruptedException
+    {
+        Scheduler scheduler = Ioc.context().find(Scheduler.class);
+        Future<?> future = scheduler.scheduleAtFixedRate(() -> {}, 1, 1, TimeUnit.HOURS);
+        Ioc.stop();
+        assertTrue(future.isCancelled());
+
+        CountDownLatch latch = new CountDownLatch(1);
+        scheduler.scheduleAtFixedRate(latch::countDown, 0, 1, TimeUnit.HOURS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Ioc.stop();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.ioc.test.events;
+
+import java.util.concurrent.CountDownLatch;
+
+public class AsyncEvent
+{
+    private final String name;
+
+    private final CountDownLatch started;
+
+    private final CountDownLatch release;
+
+    public AsyncEvent(String name)
+    {
+        this(name, null, null);
+    }
+
+    /**
+     * An event that keeps the listener busy until the release latch is
+     * opened.
+     */
+    public AsyncEvent(String name, CountDownLatch started, CountDownLatch release)
+    {
+        this.name = name;
+        this.started = started;
+        this.release = release;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public CountDownLatch getStarted()
+    {
+        return started;
+    }
+
+    public CountDownLatch getRelease()
+    {
+        return release;
+    }
+}
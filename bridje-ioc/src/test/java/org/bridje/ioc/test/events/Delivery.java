@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.ioc.test.events;
+
+import org.bridje.ioc.thls.Thls;
+
+public class Delivery
+{
+    private final String event;
+
+    private final Thread thread;
+
+    private final RequestData data;
+
+    public Delivery(String event)
+    {
+        this.event = event;
+        this.thread = Thread.currentThread();
+        this.data = Thls.get(RequestData.class);
+    }
+
+    public String getEvent()
+    {
+        return event;
+    }
+
+    public Thread getThread()
+    {
+        return thread;
+    }
+
+    public RequestData getData()
+    {
+        return data;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.ioc.test.factory;
+
+import org.bridje.ioc.Component;
+import org.bridje.ioc.Inject;
+import org.bridje.ioc.PostConstruct;
+import org.bridje.ioc.test.DummyComponent;
+
+@Component
+public class FactoryComponent
+{
+    @Inject
+    DummyComponent dummy;
+
+    boolean initialized;
+
+    @PostConstruct
+    void init()
+    {
+        initialized = true;
+    }
+
+    public DummyComponent getDummy()
+    {
+        return dummy;
+    }
+
+    public boolean isInitialized()
+    {
+        return initialized;
+    }
+}
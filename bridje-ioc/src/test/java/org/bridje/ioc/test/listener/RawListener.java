@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.ioc.test.listener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.bridje.ioc.Component;
+import org.bridje.ioc.ContextListener;
+
+@Component(scope = ListenerScope.class)
+@SuppressWarnings("rawtypes")
+public class RawListener implements ContextListener
+{
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void preCreateComponent(Class clazz)
+    {
+        events.add("preCreate " + clazz.getSimpleName());
+    }
+
+    @Override
+    public void preInitComponent(Class clazz, Object instance)
+    {
+        events.add("preInit " + clazz.getSimpleName());
+    }
+
+    @Override
+    public void postInitComponent(Class clazz, Object instance)
+    {
+        events.add("postInit " + clazz.getSimpleName());
+    }
+
+    public List<String> getEvents()
+    {
+        return events;
+    }
+}
@@ -0,0 +1,81 @@
+package org.bridje.ioc.thls.impl;
+
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class ThreadLocalStorageTest
+{
+    @Test
+    public void testNestedPushPop()
+    {
+        ThreadLocalStorage storage = new ThreadLocalStorage();
+        assertNull(storage.get(String.class));
+
+        String first = storage.push(String.class, "a");
+        assertNull(first);
+        String second = storage.push(String.class, "b");
+        assertEquals("a", second);
+        Integer number = storage.push(Integer.class, 1);
+        assertNull(number);
+        assertEquals("b", storage.get(String.class));
+        assertEquals(Integer.valueOf(1), storage.get(Integer.class));
+
+        storage.pop(String.class, second);
+        assertEquals("a", storage.get(String.class));
+        assertEquals(Integer.valueOf(1), storage.get(Integer.class));
+
+        storage.pop(Integer.class, number);
+        storage.pop(String.class, first);
+        assertNull(storage.get(String.class));
+        assertNull(storage.get(Integer.class));
+    }
+
+    @Test
+    public void testCaptureRestore()
+    {
+        ThreadLocalStorage storage = new ThreadLocalStorage();
+        String first = storage.push(String.class, "a");
+        Object[] captured = storage.capture();
+        String second = storage.push(String.class, "b");
+
+        Object[] previous = storage.restore(captured);
+        assertEquals("a", storage.get(String.class));
+        storage.restore(previous);
+        assertEquals("b", storage.get(String.class));
+
+        storage.pop(String.class, second);
+        storage.pop(String.class, first);
+        assertNull(storage.get(String.class));
+    }
+
+    @Test
+    public void testRestoreInOtherThread() throws InterruptedException
+    {
+        ThreadLocalStorage storage = new ThreadLocalStorage();
+        String previous = storage.push(String.class, "a");
+        Object[] captured = storage.capture();
+        AtomicReference<String> inside = new AtomicReference<>();
+        AtomicReference<String> after = new AtomicReference<>("none");
+        Thread thread = new Thread(() ->
+        {
+            Object[] old = storage.restore(captured);
+            try
+            {
+                inside.set(storage.get(String.class));
+                storage.push(String.class, "b");
+            }
+            finally
+            {
+                storage.restore(old);
+            }
+            after.set(storage.get(String.class));
+        });
+        thread.start();
+        thread.join();
+        assertEquals("a", inside.get());
+        assertNull(after.get());
+        assertEquals("a", storage.get(String.class));
+        storage.pop(String.class, previous);
+    }
+}
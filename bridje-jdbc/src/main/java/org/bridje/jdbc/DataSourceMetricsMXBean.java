@@ -0,0 +1,177 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.jdbc;
+
+import java.util.Map;
+
+/**
+ * The metrics of a pooled DataSource, registered in the platform MBean server
+ * by the JdbcService under the name
+ * {@code org.bridje.jdbc:type=DataSource,name="<datasource name>"} for every
+ * DataSource in the jdbc.xml configuration file and every DataSource created
+ * by the service, while it is not closed.
+ * <p>
+ * The times are in milliseconds, the histograms map the upper bound of each
+ * bucket to the number of samples in it. The histograms hold all the samples
+ * since the DataSource was created or since they were reset with the
+ * {@link #resetHistograms()} operation.
+ */
+public interface DataSourceMetricsMXBean
+{
+    /**
+     * The name of the DataSource.
+     *
+     * @return The name of the DataSource.
+     */
+    String getName();
+
+    /**
+     * The maximum number of connections of the DataSource.
+     *
+     * @return The maximum number of connections.
+     */
+    int getMaxConnections();
+
+    /**
+     * The number of connections open with the database.
+     *
+     * @return The total number of connections.
+     */
+    int getTotalConnections();
+
+    /**
+     * The number of connections currently borrowed.
+     *
+     * @return The number of active connections.
+     */
+    int getActiveConnections();
+
+    /**
+     * The number of open connections that are not borrowed.
+     *
+     * @return The number of idle connections.
+     */
+    int getIdleConnections();
+
+    /**
+     * The number of threads waiting for a free connection.
+     *
+     * @return The number of pending threads.
+     */
+    int getPendingThreads();
+
+    /**
+     * The number of times a thread could not get a connection before the wait
+     * timeout.
+     *
+     * @return The number of timeouts.
+     */
+    long getTimeouts();
+
+    /**
+     * The number of connections opened with the database.
+     *
+     * @return The number of created connections.
+     */
+    long getCreatedConnections();
+
+    /**
+     * The number of connections closed by the DataSource.
+     *
+     * @return The number of closed connections.
+     */
+    long getClosedConnections();
+
+    /**
+     * The number of connections discarded because they failed the validation.
+     *
+     * @return The number of validation failures.
+     */
+    long getValidationFailures();
+
+    /**
+     * The number of connections detected as leaked, borrowed for longer than
+     * the leak detection threshold.
+     *
+     * @return The number of leaked connections.
+     */
+    long getLeakedConnections();
+
+    /**
+     * The number of prepared statements found in the statements cache of the
+     * connections.
+     *
+     * @return The number of cache hits.
+     */
+    long getStatementCacheHits();
+
+    /**
+     * The number of prepared statements that had to be prepared by the driver
+     * because they were not found in the statements cache.
+     *
+     * @return The number of cache misses.
+     */
+    long getStatementCacheMisses();
+
+    /**
+     * The time the threads waited to get a connection.
+     *
+     * @return The histogram of the borrow times.
+     */
+    Map<String, Long> getBorrowTimeHistogram();
+
+    /**
+     * The average time the threads waited to get a connection.
+     *
+     * @return The average borrow time.
+     */
+    double getBorrowTimeAverage();
+
+    /**
+     * The maximum time a thread waited to get a connection.
+     *
+     * @return The maximum borrow time.
+     */
+    long getBorrowTimeMax();
+
+    /**
+     * The time the connections were used before they were released.
+     *
+     * @return The histogram of the usage times.
+     */
+    Map<String, Long> getUsageTimeHistogram();
+
+    /**
+     * The average time the connections were used before they were released.
+     *
+     * @return The average usage time.
+     */
+    double getUsageTimeAverage();
+
+    /**
+     * The maximum time a connection was used before it was released.
+     *
+     * @return The maximum usage time.
+     */
+    long getUsageTimeMax();
+
+    /**
+     * Removes the samples of the borrow and usage time histograms, so they
+     * show the times since this call.
+     */
+    void resetHistograms();
+}
@@ -45,6 +45,24 @@ public class DataSourceConfig
 
     private int reconnectTime;
 
+    private long maxLifetime;
+
+    private int maintenanceTime;
+
+    private ValidationMode validationMode;
+
+    private String validationQuery;
+
+    private int validationTimeout;
+
+    private int statementCacheSize;
+
+    private long leakDetectionThreshold;
+
+    private boolean reclaimLeakedConnections;
+
+    private int closeTimeout;
+
     /**
      * Gets the name of the DataSource object that will be found by the
      * {@link org.bridje.jdbc.JdbcService#getDataSource} method.
@@ -242,7 +260,8 @@ public class DataSourceConfig
 
     /**
      * The time in seconds before the connection is tested to be discarded as
-     * idle, and the framework tries to reconnect it again.
+     * idle, and the framework tries to reconnect it again. When the connection
+     * is tested depends on the validation mode.
      *
      * @return An integer representing the time in seconds.
      */
@@ -257,7 +276,8 @@ public class DataSourceConfig
 
     /**
      * The time in seconds before the connection is tested to be discarded as
-     * idle, and the framework tries to reconnect it again.
+     * idle, and the framework tries to reconnect it again. When the connection
+     * is tested depends on the validation mode.
      *
      * @param reconnectTime An integer representing the time in seconds.
      */
@@ -265,4 +285,256 @@ public class DataSourceConfig
     {
         this.reconnectTime = reconnectTime;
     }
+
+    /**
+     * The maximum time in seconds a connection is kept in the datasource since
+     * it was created, older connections are closed when they are released and
+     * replaced by new ones.
+     *
+     * @return The maximum lifetime in seconds of the connections.
+     */
+    public long getMaxLifetime()
+    {
+        if (maxLifetime <= 0)
+        {
+            return 1800;
+        }
+        return maxLifetime;
+    }
+
+    /**
+     * The maximum time in seconds a connection is kept in the datasource since
+     * it was created, older connections are closed when they are released and
+     * replaced by new ones.
+     *
+     * @param maxLifetime The maximum lifetime in seconds of the connections.
+     */
+    public void setMaxLifetime(long maxLifetime)
+    {
+        this.maxLifetime = maxLifetime;
+    }
+
+    /**
+     * The time in seconds between the runs of the maintenance task of the
+     * datasource, that releases the idle connections, validates and replaces
+     * the old ones, and creates new connections up to the minimum.
+     *
+     * @return The time in seconds between maintenance runs.
+     */
+    public int getMaintenanceTime()
+    {
+        if (maintenanceTime <= 0)
+        {
+            return 30;
+        }
+        return maintenanceTime;
+    }
+
+    /**
+     * The time in seconds between the runs of the maintenance task of the
+     * datasource, that releases the idle connections, validates and replaces
+     * the old ones, and creates new connections up to the minimum.
+     *
+     * @param maintenanceTime The time in seconds between maintenance runs.
+     */
+    public void setMaintenanceTime(int maintenanceTime)
+    {
+        this.maintenanceTime = maintenanceTime;
+    }
+
+    /**
+     * Determines when the connections are validated against the database, by
+     * default they are validated by the maintenance task.
+     *
+     * @return The validation mode of the connections.
+     */
+    public ValidationMode getValidationMode()
+    {
+        if (validationMode == null)
+        {
+            return ValidationMode.BACKGROUND;
+        }
+        return validationMode;
+    }
+
+    /**
+     * Determines when the connections are validated against the database, by
+     * default they are validated by the maintenance task.
+     *
+     * @param validationMode The validation mode of the connections.
+     */
+    public void setValidationMode(ValidationMode validationMode)
+    {
+        this.validationMode = validationMode;
+    }
+
+    /**
+     * A lightweight SQL query to validate the connections, if it is not
+     * specified the Connection.isValid method of the driver will be used.
+     *
+     * @return The SQL query to validate the connections.
+     */
+    public String getValidationQuery()
+    {
+        return validationQuery;
+    }
+
+    /**
+     * A lightweight SQL query to validate the connections, if it is not
+     * specified the Connection.isValid method of the driver will be used.
+     *
+     * @param validationQuery The SQL query to validate the connections.
+     */
+    public void setValidationQuery(String validationQuery)
+    {
+        this.validationQuery = validationQuery;
+    }
+
+    /**
+     * The time in seconds to wait for the database when a connection is
+     * validated, the connection is discarded if the time runs out.
+     *
+     * @return The validation timeout in seconds.
+     */
+    public int getValidationTimeout()
+    {
+        if (validationTimeout <= 0)
+        {
+            return 10;
+        }
+        return validationTimeout;
+    }
+
+    /**
+     * The time in seconds to wait for the database when a connection is
+     * validated, the connection is discarded if the time runs out.
+     *
+     * @param validationTimeout The validation timeout in seconds.
+     */
+    public void setValidationTimeout(int validationTimeout)
+    {
+        this.validationTimeout = validationTimeout;
+    }
+
+    /**
+     * The maximum number of prepared statements cached by each connection, the
+     * statements are reused when the same SQL is prepared again in the
+     * connection. The cache is disabled by default.
+     *
+     * @return The size of the statements cache, 0 if it is disabled.
+     */
+    public int getStatementCacheSize()
+    {
+        if (statementCacheSize < 0)
+        {
+            return 0;
+        }
+        return statementCacheSize;
+    }
+
+    /**
+     * The maximum number of prepared statements cached by each connection, the
+     * statements are reused when the same SQL is prepared again in the
+     * connection. The cache is disabled by default.
+     *
+     * @param statementCacheSize The size of the statements cache, 0 to
+     *                           disable it.
+     */
+    public void setStatementCacheSize(int statementCacheSize)
+    {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * The time in seconds a connection can be borrowed before it is reported
+     * as a possible leak, with the stack trace of the thread that borrowed it.
+     * The connections are checked by the maintenance task of the datasource.
+     * Leak detection is disabled by default.
+     *
+     * @return The leak detection threshold in seconds, 0 if it is disabled.
+     */
+    public long getLeakDetectionThreshold()
+    {
+        if (leakDetectionThreshold < 0)
+        {
+            return 0;
+        }
+        return leakDetectionThreshold;
+    }
+
+    /**
+     * The time in seconds a connection can be borrowed before it is reported
+     * as a possible leak, with the stack trace of the thread that borrowed it.
+     * The connections are checked by the maintenance task of the datasource.
+     * Leak detection is disabled by default.
+     *
+     * @param leakDetectionThreshold The leak detection threshold in seconds, 0
+     *                               to disable it.
+     */
+    public void setLeakDetectionThreshold(long leakDetectionThreshold)
+    {
+        this.leakDetectionThreshold = leakDetectionThreshold;
+    }
+
+    /**
+     * If the leaked connections must be closed and removed from the datasource
+     * so their place can be taken by new connections, the code that leaked
+     * them will get an error if it uses them again.
+     * <p>
+     * The real connection is closed while the borrower may still be using it,
+     * a borrower running a legitimate query or transaction that takes longer
+     * than the leak detection threshold will fail, so the threshold must be
+     * greater than the longest expected use of a connection.
+     *
+     * @return true if the leaked connections are reclaimed.
+     */
+    public boolean isReclaimLeakedConnections()
+    {
+        return reclaimLeakedConnections;
+    }
+
+    /**
+     * If the leaked connections must be closed and removed from the datasource
+     * so their place can be taken by new connections, the code that leaked
+     * them will get an error if it uses them again.
+     * <p>
+     * The real connection is closed while the borrower may still be using it,
+     * a borrower running a legitimate query or transaction that takes longer
+     * than the leak detection threshold will fail, so the threshold must be
+     * greater than the longest expected use of a connection.
+     *
+     * @param reclaimLeakedConnections true to reclaim the leaked connections.
+     */
+    public void setReclaimLeakedConnections(boolean reclaimLeakedConnections)
+    {
+        this.reclaimLeakedConnections = reclaimLeakedConnections;
+    }
+
+    /**
+     * The time in seconds the datasource waits for the borrowed connections to
+     * be returned when it is closed or reconnected, the connections still in
+     * use after that are closed. 30 seconds by default.
+     *
+     * @return The close timeout in seconds.
+     */
+    public int getCloseTimeout()
+    {
+        if (closeTimeout <= 0)
+        {
+            return 30;
+        }
+        return closeTimeout;
+    }
+
+    /**
+     * The time in seconds the datasource waits for the borrowed connections to
+     * be returned when it is closed or reconnected, the connections still in
+     * use after that are closed. 30 seconds by default.
+     *
+     * @param closeTimeout The close timeout in seconds.
+     */
+    public void setCloseTimeout(int closeTimeout)
+    {
+        this.closeTimeout = closeTimeout;
+    }
 }
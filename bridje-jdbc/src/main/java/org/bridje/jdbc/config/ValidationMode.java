@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.jdbc.config;
+
+import javax.xml.bind.annotation.XmlEnum;
+
+/**
+ * Determines when the connections of a DataSource are validated against the
+ * database. The connections that fail the validation are discarded and
+ * replaced by new ones.
+ */
+@XmlEnum
+public enum ValidationMode
+{
+    /**
+     * The free connections are validated when they are borrowed, only if they
+     * have not been used or validated for longer than the reconnect time.
+     */
+    BORROW,
+    /**
+     * The free connections that have not been used or validated for longer
+     * than the reconnect time are validated by the maintenance task of the
+     * DataSource, borrowing a connection never waits for the validation.
+     */
+    BACKGROUND,
+    /**
+     * The connections are never validated.
+     */
+    NEVER;
+}
@@ -0,0 +1,951 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.jdbc.impl;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.*;
+import java.util.Calendar;
+import java.util.Objects;
+
+/**
+ * A prepared statement of the statements cache of a connection. Closing this
+ * statement returns the real statement to the cache of the connection so it
+ * can be reused by the next prepareStatement call with the same SQL.
+ */
+class CachedStatement implements PreparedStatement
+{
+    private final PreparedStatement statement;
+
+    private final Key key;
+
+    private final ConnectionImpl connection;
+
+    private final int queryTimeout;
+
+    private boolean modified;
+
+    private boolean closed;
+
+    public CachedStatement(PreparedStatement statement, Key key, ConnectionImpl connection) throws SQLException
+    {
+        this.statement = statement;
+        this.key = key;
+        this.connection = connection;
+        this.queryTimeout = statement.getQueryTimeout();
+    }
+
+    @Override
+    public void close() throws SQLException
+    {
+        if(closed)
+        {
+            return;
+        }
+        closed = true;
+        if(modified)
+        {
+            connection.releaseStatement(key, statement, false);
+            return;
+        }
+        boolean reusable = true;
+        try
+        {
+            ResultSet rs = statement.getResultSet();
+            if(rs != null)
+            {
+                rs.close();
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.clearWarnings();
+            if(statement.getQueryTimeout() != queryTimeout)
+            {
+                statement.setQueryTimeout(queryTimeout);
+            }
+        }
+        catch (SQLException e)
+        {
+            reusable = false;
+        }
+        connection.releaseStatement(key, statement, reusable);
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException
+    {
+        return closed || statement.isClosed();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        checkClosed();
+        return connection;
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException
+    {
+        checkClosed();
+        statement.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException
+    {
+        checkClosed();
+        return statement.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException
+    {
+        checkClosed();
+        return statement.isWrapperFor(iface);
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException
+    {
+        checkClosed();
+        return wrap(statement.executeQuery(sql));
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException
+    {
+        checkClosed();
+        return statement.executeUpdate(sql);
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException
+    {
+        checkClosed();
+        return statement.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException
+    {
+        checkClosed();
+        modified = true;
+        statement.setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException
+    {
+        checkClosed();
+        return statement.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException
+    {
+        checkClosed();
+        modified = true;
+        statement.setMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException
+    {
+        checkClosed();
+        modified = true;
+        statement.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException
+    {
+        checkClosed();
+        return statement.getQueryTimeout();
+    }
+
+    @Override
+    public void cancel() throws SQLException
+    {
+        checkClosed();
+        statement.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException
+    {
+        checkClosed();
+        return statement.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException
+    {
+        checkClosed();
+        statement.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException
+    {
+        checkClosed();
+        modified = true;
+        statement.setCursorName(name);
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException
+    {
+        checkClosed();
+        return statement.execute(sql);
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException
+    {
+        checkClosed();
+        return wrap(statement.getResultSet());
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException
+    {
+        checkClosed();
+        return statement.getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException
+    {
+        checkClosed();
+        return statement.getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException
+    {
+        checkClosed();
+        modified = true;
+        statement.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException
+    {
+        checkClosed();
+        return statement.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException
+    {
+        checkClosed();
+        modified = true;
+        statement.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException
+    {
+        checkClosed();
+        return statement.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException
+    {
+        checkClosed();
+        return statement.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException
+    {
+        checkClosed();
+        return statement.getResultSetType();
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException
+    {
+        checkClosed();
+        statement.addBatch(sql);
+    }
+
+    @Override
+    public void clearBatch() throws SQLException
+    {
+        checkClosed();
+        statement.clearBatch();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException
+    {
+        checkClosed();
+        return statement.executeBatch();
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException
+    {
+        checkClosed();
+        return statement.getMoreResults(current);
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException
+    {
+        checkClosed();
+        return wrap(statement.getGeneratedKeys());
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException
+    {
+        checkClosed();
+        return statement.executeUpdate(sql, autoGeneratedKeys);
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException
+    {
+        checkClosed();
+        return statement.executeUpdate(sql, columnIndexes);
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException
+    {
+        checkClosed();
+        return statement.executeUpdate(sql, columnNames);
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException
+    {
+        checkClosed();
+        return statement.execute(sql, autoGeneratedKeys);
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException
+    {
+        checkClosed();
+        return statement.execute(sql, columnIndexes);
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException
+    {
+        checkClosed();
+        return statement.execute(sql, columnNames);
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException
+    {
+        checkClosed();
+        return statement.getResultSetHoldability();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException
+    {
+        checkClosed();
+        modified = true;
+        statement.setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException
+    {
+        checkClosed();
+        return statement.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException
+    {
+        checkClosed();
+        modified = true;
+        statement.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException
+    {
+        checkClosed();
+        return statement.isCloseOnCompletion();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException
+    {
+        checkClosed();
+        return statement.getLargeUpdateCount();
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException
+    {
+        checkClosed();
+        modified = true;
+        statement.setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException
+    {
+        checkClosed();
+        return statement.getLargeMaxRows();
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException
+    {
+        checkClosed();
+        return statement.executeLargeBatch();
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException
+    {
+        checkClosed();
+        return statement.executeLargeUpdate(sql);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException
+    {
+        checkClosed();
+        return statement.executeLargeUpdate(sql, autoGeneratedKeys);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException
+    {
+        checkClosed();
+        return statement.executeLargeUpdate(sql, columnIndexes);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException
+    {
+        checkClosed();
+        return statement.executeLargeUpdate(sql, columnNames);
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException
+    {
+        checkClosed();
+        return wrap(statement.executeQuery());
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException
+    {
+        checkClosed();
+        return statement.executeUpdate();
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException
+    {
+        checkClosed();
+        statement.setNull(parameterIndex, sqlType);
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException
+    {
+        checkClosed();
+        statement.setBoolean(parameterIndex, x);
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException
+    {
+        checkClosed();
+        statement.setByte(parameterIndex, x);
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException
+    {
+        checkClosed();
+        statement.setShort(parameterIndex, x);
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException
+    {
+        checkClosed();
+        statement.setInt(parameterIndex, x);
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException
+    {
+        checkClosed();
+        statement.setLong(parameterIndex, x);
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException
+    {
+        checkClosed();
+        statement.setFloat(parameterIndex, x);
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException
+    {
+        checkClosed();
+        statement.setDouble(parameterIndex, x);
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException
+    {
+        checkClosed();
+        statement.setBigDecimal(parameterIndex, x);
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException
+    {
+        checkClosed();
+        statement.setString(parameterIndex, x);
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException
+    {
+        checkClosed();
+        statement.setBytes(parameterIndex, x);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException
+    {
+        checkClosed();
+        statement.setDate(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException
+    {
+        checkClosed();
+        statement.setTime(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException
+    {
+        checkClosed();
+        statement.setTimestamp(parameterIndex, x);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException
+    {
+        checkClosed();
+        statement.setAsciiStream(parameterIndex, x, length);
+    }
+
+    @Override
+    @Deprecated
+    public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException
+    {
+        checkClosed();
+        statement.setUnicodeStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException
+    {
+        checkClosed();
+        statement.setBinaryStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void clearParameters() throws SQLException
+    {
+        checkClosed();
+        statement.clearParameters();
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException
+    {
+        checkClosed();
+        statement.setObject(parameterIndex, x, targetSqlType);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException
+    {
+        checkClosed();
+        statement.setObject(parameterIndex, x);
+    }
+
+    @Override
+    public boolean execute() throws SQLException
+    {
+        checkClosed();
+        return statement.execute();
+    }
+
+    @Override
+    public void addBatch() throws SQLException
+    {
+        checkClosed();
+        statement.addBatch();
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException
+    {
+        checkClosed();
+        statement.setCharacterStream(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x) throws SQLException
+    {
+        checkClosed();
+        statement.setRef(parameterIndex, x);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x) throws SQLException
+    {
+        checkClosed();
+        statement.setBlob(parameterIndex, x);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x) throws SQLException
+    {
+        checkClosed();
+        statement.setClob(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x) throws SQLException
+    {
+        checkClosed();
+        statement.setArray(parameterIndex, x);
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException
+    {
+        checkClosed();
+        return statement.getMetaData();
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException
+    {
+        checkClosed();
+        statement.setDate(parameterIndex, x, cal);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException
+    {
+        checkClosed();
+        statement.setTime(parameterIndex, x, cal);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException
+    {
+        checkClosed();
+        statement.setTimestamp(parameterIndex, x, cal);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException
+    {
+        checkClosed();
+        statement.setNull(parameterIndex, sqlType, typeName);
+    }
+
+    @Override
+    public void setURL(int parameterIndex, URL x) throws SQLException
+    {
+        checkClosed();
+        statement.setURL(parameterIndex, x);
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData() throws SQLException
+    {
+        checkClosed();
+        return statement.getParameterMetaData();
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x) throws SQLException
+    {
+        checkClosed();
+        statement.setRowId(parameterIndex, x);
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String value) throws SQLException
+    {
+        checkClosed();
+        statement.setNString(parameterIndex, value);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException
+    {
+        checkClosed();
+        statement.setNCharacterStream(parameterIndex, value, length);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob value) throws SQLException
+    {
+        checkClosed();
+        statement.setNClob(parameterIndex, value);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader, long length) throws SQLException
+    {
+        checkClosed();
+        statement.setClob(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException
+    {
+        checkClosed();
+        statement.setBlob(parameterIndex, inputStream, length);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException
+    {
+        checkClosed();
+        statement.setNClob(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException
+    {
+        checkClosed();
+        statement.setSQLXML(parameterIndex, xmlObject);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException
+    {
+        checkClosed();
+        statement.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException
+    {
+        checkClosed();
+        statement.setAsciiStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException
+    {
+        checkClosed();
+        statement.setBinaryStream(parameterIndex, x, length);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException
+    {
+        checkClosed();
+        statement.setCharacterStream(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException
+    {
+        checkClosed();
+        statement.setAsciiStream(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException
+    {
+        checkClosed();
+        statement.setBinaryStream(parameterIndex, x);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException
+    {
+        checkClosed();
+        statement.setCharacterStream(parameterIndex, reader);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException
+    {
+        checkClosed();
+        statement.setNCharacterStream(parameterIndex, value);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader) throws SQLException
+    {
+        checkClosed();
+        statement.setClob(parameterIndex, reader);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException
+    {
+        checkClosed();
+        statement.setBlob(parameterIndex, inputStream);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader) throws SQLException
+    {
+        checkClosed();
+        statement.setNClob(parameterIndex, reader);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException
+    {
+        checkClosed();
+        statement.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException
+    {
+        checkClosed();
+        statement.setObject(parameterIndex, x, targetSqlType);
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException
+    {
+        checkClosed();
+        return statement.executeLargeUpdate();
+    }
+
+    /**
+     * The result sets are wrapped so their getStatement method does not give
+     * the real statement to the code that uses them.
+     */
+    private ResultSet wrap(ResultSet rs)
+    {
+        return rs == null ? null : new CachedResultSet(rs, this);
+    }
+
+    private void checkClosed() throws SQLException
+    {
+        if(closed)
+        {
+            throw new SQLException("The statement is closed.");
+        }
+    }
+
+    /**
+     * The key of a statement in the cache, the SQL text and the options used
+     * to prepare it.
+     */
+    static final class Key
+    {
+        private final String sql;
+
+        private final int resultSetType;
+
+        private final int resultSetConcurrency;
+
+        private final int autoGeneratedKeys;
+
+        public Key(String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys)
+        {
+            this.sql = sql;
+            this.resultSetType = resultSetType;
+            this.resultSetConcurrency = resultSetConcurrency;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        /**
+         * Prepares a new statement for this key.
+         *
+         * @param cnn The real connection.
+         *
+         * @return The new statement.
+         *
+         * @throws SQLException If the driver fails to prepare the statement.
+         */
+        public PreparedStatement prepare(Connection cnn) throws SQLException
+        {
+            if(autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS)
+            {
+                return cnn.prepareStatement(sql, autoGeneratedKeys);
+            }
+            if(resultSetType == ResultSet.TYPE_FORWARD_ONLY && resultSetConcurrency == ResultSet.CONCUR_READ_ONLY)
+            {
+                return cnn.prepareStatement(sql);
+            }
+            return cnn.prepareStatement(sql, resultSetType, resultSetConcurrency);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int hash = sql.hashCode();
+            hash = 31 * hash + resultSetType;
+            hash = 31 * hash + resultSetConcurrency;
+            hash = 31 * hash + autoGeneratedKeys;
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if(this == obj)
+            {
+                return true;
+            }
+            if(!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key)obj;
+            return resultSetType == other.resultSetType
+                    && resultSetConcurrency == other.resultSetConcurrency
+                    && autoGeneratedKeys == other.autoGeneratedKeys
+                    && Objects.equals(sql, other.sql);
+        }
+    }
+}
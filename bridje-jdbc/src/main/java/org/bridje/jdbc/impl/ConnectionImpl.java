@@ -17,6 +17,7 @@
 package org.bridje.jdbc.impl;
 
 import java.sql.*;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executor;
@@ -27,20 +28,87 @@ class ConnectionImpl implements Connection
 
     private final DataSourceImpl parentDataSource;
 
-    private long lastUse;
+    private final long createTime;
 
-    private boolean closed = true;
+    private volatile long lastUse;
 
-    public ConnectionImpl(Connection connection, DataSourceImpl parentDataSource)
+    private volatile long lastValidation;
+
+    private volatile boolean closed = true;
+
+    private volatile Throwable borrowTrace;
+
+    private volatile boolean leakReported;
+
+    private final int statementCacheSize;
+
+    private final Map<CachedStatement.Key, PreparedStatement> statementCache;
+
+    public ConnectionImpl(Connection connection, DataSourceImpl parentDataSource, int statementCacheSize)
     {
         this.connection = connection;
         this.parentDataSource = parentDataSource;
+        this.statementCacheSize = statementCacheSize;
+        this.statementCache = new LinkedHashMap<CachedStatement.Key, PreparedStatement>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CachedStatement.Key, PreparedStatement> eldest)
+            {
+                if(size() > ConnectionImpl.this.statementCacheSize)
+                {
+                    closeStatement(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.createTime = System.currentTimeMillis();
+        this.lastUse = createTime;
+        this.lastValidation = createTime;
+    }
+
+    /**
+     * Marks this connection as borrowed.
+     *
+     * @param borrowTrace The stack trace of the thread that borrowed the
+     *                    connection, or null if leak detection is disabled.
+     */
+    protected void open(Throwable borrowTrace)
+    {
+        this.borrowTrace = borrowTrace;
+        this.leakReported = false;
+        closed = false;
+        lastUse = System.currentTimeMillis();
     }
 
-    protected void open()
+    public Throwable getBorrowTrace()
     {
-        closed = false;
-        lastUse = System.currentTimeMillis();
+        return borrowTrace;
+    }
+
+    /**
+     * Marks this connection as reported as leaked, so it is reported only
+     * once.
+     *
+     * @return true if the connection was not reported before.
+     */
+    protected boolean reportLeak()
+    {
+        if(leakReported)
+        {
+            return false;
+        }
+        leakReported = true;
+        return true;
+    }
+
+    /**
+     * Closes this connection for the code that borrowed it without returning
+     * it to the datasource, so the code that leaked it can no longer use it.
+     */
+    protected void reclaim()
+    {
+        closed = true;
     }
 
     public long getLastUse()
@@ -48,6 +116,76 @@ class ConnectionImpl implements Connection
         return lastUse;
     }
 
+    public long getCreateTime()
+    {
+        return createTime;
+    }
+
+    /**
+     * The last time this connection was used or validated.
+     *
+     * @return The time in milliseconds.
+     */
+    public long getLastCheck()
+    {
+        return Math.max(lastUse, lastValidation);
+    }
+
+    /**
+     * Determines if the real connection was closed, by the driver or by the
+     * database, without going to the database.
+     *
+     * @return true the connection cannot be used.
+     */
+    protected boolean isBroken()
+    {
+        try
+        {
+            return connection.isClosed();
+        }
+        catch (SQLException e)
+        {
+            return true;
+        }
+    }
+
+    /**
+     * Checks that the real connection is still valid, this is done by the
+     * datasource while the connection is not used.
+     *
+     * @param query   The SQL query to execute, or null to use the isValid
+     *                method of the driver.
+     * @param timeout The time in seconds to wait for the database.
+     *
+     * @return true the connection is valid.
+     */
+    protected boolean validate(String query, int timeout)
+    {
+        try
+        {
+            boolean valid;
+            if(query == null || query.trim().isEmpty())
+            {
+                valid = !connection.isClosed() && connection.isValid(timeout);
+            }
+            else
+            {
+                try(Statement stmt = connection.createStatement())
+                {
+                    stmt.setQueryTimeout(timeout);
+                    stmt.execute(query);
+                    valid = true;
+                }
+            }
+            lastValidation = System.currentTimeMillis();
+            return valid;
+        }
+        catch (SQLException e)
+        {
+            return false;
+        }
+    }
+
     @Override
     public Statement createStatement() throws SQLException
     {
@@ -59,6 +197,10 @@ class ConnectionImpl implements Connection
     public PreparedStatement prepareStatement(String sql) throws SQLException
     {
         checkClosed();
+        if(statementCacheSize > 0)
+        {
+            return prepareCached(new CachedStatement.Key(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, Statement.NO_GENERATED_KEYS));
+        }
         return connection.prepareStatement(sql);
     }
 
@@ -191,6 +333,10 @@ class ConnectionImpl implements Connection
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException
     {
         checkClosed();
+        if(statementCacheSize > 0)
+        {
+            return prepareCached(new CachedStatement.Key(sql, resultSetType, resultSetConcurrency, Statement.NO_GENERATED_KEYS));
+        }
         return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
     }
 
@@ -282,6 +428,10 @@ class ConnectionImpl implements Connection
     public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException
     {
         checkClosed();
+        if(statementCacheSize > 0)
+        {
+            return prepareCached(new CachedStatement.Key(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, autoGeneratedKeys));
+        }
         return connection.prepareStatement(sql, autoGeneratedKeys);
     }
 
@@ -424,9 +574,68 @@ class ConnectionImpl implements Connection
 
     protected void realClose() throws SQLException
     {
+        synchronized(statementCache)
+        {
+            statementCache.values().forEach(this::closeStatement);
+            statementCache.clear();
+        }
         connection.close();
     }
 
+    private PreparedStatement prepareCached(CachedStatement.Key key) throws SQLException
+    {
+        PreparedStatement stmt;
+        synchronized(statementCache)
+        {
+            stmt = statementCache.remove(key);
+        }
+        if(stmt != null)
+        {
+            parentDataSource.getMetrics().statementCacheHit();
+        }
+        else
+        {
+            parentDataSource.getMetrics().statementCacheMiss();
+            stmt = key.prepare(connection);
+        }
+        return new CachedStatement(stmt, key, this);
+    }
+
+    /**
+     * Returns a statement to the cache when the CachedStatement that uses it
+     * is closed, the least recently used statement is closed if the cache is
+     * full.
+     *
+     * @param key      The key of the statement.
+     * @param stmt     The real statement.
+     * @param reusable false if the statement cannot be reused and must be
+     *                 closed.
+     */
+    protected void releaseStatement(CachedStatement.Key key, PreparedStatement stmt, boolean reusable)
+    {
+        synchronized(statementCache)
+        {
+            if(reusable && !statementCache.containsKey(key))
+            {
+                statementCache.put(key, stmt);
+                return;
+            }
+        }
+        closeStatement(stmt);
+    }
+
+    private void closeStatement(PreparedStatement stmt)
+    {
+        try
+        {
+            stmt.close();
+        }
+        catch (SQLException e)
+        {
+            //the statement is discarded anyway.
+        }
+    }
+
     private void checkClosed() throws SQLException
     {
         if(closed)
@@ -21,37 +21,56 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
-import java.util.ArrayList;
-import java.util.Deque;
-import java.util.List;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.sql.DataSource;
 import org.bridje.jdbc.config.DataSourceConfig;
+import org.bridje.jdbc.config.ValidationMode;
 
+/**
+ * The connection pool of a datasource. Borrowing and releasing a connection
+ * only touches the queue of free connections, the idle connections are
+ * evicted, validated and replaced, and the pool is filled up to the minimum
+ * number of connections, by a maintenance task that runs periodically in a
+ * thread of the pool, so a slow database does not delay the other pools or
+ * the scheduled tasks of the application.
+ */
 class DataSourceImpl implements DataSource
 {
     private static final Logger LOG = Logger.getLogger(DataSourceImpl.class.getName());
 
-    private final Deque<ConnectionImpl> freeConnections = new ConcurrentLinkedDeque<>();
+    private static final long WAIT_TIMEOUT = 30 * 1000;
+
+    private final LinkedBlockingDeque<ConnectionImpl> freeConnections = new LinkedBlockingDeque<>();
+
+    private final Set<ConnectionImpl> usedConnections = ConcurrentHashMap.newKeySet();
 
-    private final Deque<ConnectionImpl> usedConnections = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
 
-    private DataSourceConfig config;
+    private final DataSourceMetrics metrics;
+
+    private volatile DataSourceConfig config;
     
     private PrintWriter logWriter;
     
     private int loginTimeout;
     
-    private boolean closed;
+    private volatile boolean closed;
     
-    private long lastCheck;
+    private ScheduledExecutorService maintenance;
     
     public DataSourceImpl(DataSourceConfig config)
     {
         this.config = config;
-        this.lastCheck = System.currentTimeMillis();
+        this.metrics = new DataSourceMetrics(this);
+        startMaintenance();
     }
     
     @Override
@@ -61,18 +80,20 @@ class DataSourceImpl implements DataSource
         {
             throw new SQLException("The DataSource is close.");
         }
-        Connection result = getFreeConnection();
-        if(result != null)
+        long start = System.nanoTime();
+        ConnectionImpl result = getFreeConnection();
+        if(result == null)
         {
-            checkIdleConnections();
-            return result;
+            result = getNewConnection();
         }
-        result = getNewConnection();
-        if(result != null)
+        if(result == null)
         {
-            return result;
+            result = waitFreeConnection();
         }
-        return waitFreeConnection();
+        result.open(config.getLeakDetectionThreshold() > 0 ? new Throwable("The connection was borrowed here.") : null);
+        usedConnections.add(result);
+        metrics.borrowed(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
     }
 
     @Override
@@ -85,63 +106,105 @@ class DataSourceImpl implements DataSource
         return createNewConnection(username, password);
     }
 
-    private synchronized Connection getFreeConnection() throws SQLException
+    private ConnectionImpl getFreeConnection()
     {
-        if(!freeConnections.isEmpty())
+        DataSourceConfig cfg = config;
+        boolean borrow = cfg.getValidationMode() == ValidationMode.BORROW;
+        ConnectionImpl cnn;
+        while((cnn = freeConnections.pollFirst()) != null)
         {
-            ConnectionImpl nextConnection = freeConnections.poll();
-            if(needToReconnect(nextConnection))
+            //the closed check does not go to the database, the validation on
+            //borrow may do it.
+            boolean valid = !cnn.isBroken() && (!borrow || !needToValidate(cnn, System.currentTimeMillis())
+                    || cnn.validate(cfg.getValidationQuery(), cfg.getValidationTimeout()));
+            if(valid)
             {
-                if(!nextConnection.isValid(10))
-                {
-                    nextConnection.realClose();
-                    nextConnection = createNewConnection();
-                }
+                return cnn;
             }
-            nextConnection.open();
-            usedConnections.add(nextConnection);
-            LOG.log(Level.FINE, String.format("Current free connections in %s: %s", config.getName(), freeConnections.size()) );
-            return nextConnection;
+            LOG.log(Level.FINE, String.format("Discarding invalid connection for %s.", cfg.getName()));
+            metrics.validationFailed();
+            retireConnection(cnn);
         }
         return null;
     }
 
-    private synchronized Connection getNewConnection() throws SQLException
+    private ConnectionImpl getNewConnection() throws SQLException
     {
-        if(usedConnections.size() < config.getMaxConnections())
+        if(!reserveConnection())
+        {
+            return null;
+        }
+        try
         {
             ConnectionImpl newConnection = createNewConnection();
-            newConnection.open();
-            usedConnections.add(newConnection);
-            LOG.log(Level.FINE, String.format("Current used connections in %s: %s, of %s", config.getName(), usedConnections.size(), config.getMaxConnections()));
+            metrics.connectionCreated();
+            LOG.log(Level.FINE, String.format("Current total connections in %s: %s, of %s", config.getName(), totalConnections.get(), config.getMaxConnections()));
             return newConnection;
         }
-        return null;
+        catch (SQLException | RuntimeException e)
+        {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
     }
 
-    private synchronized Connection waitFreeConnection() throws SQLException
+    private ConnectionImpl waitFreeConnection() throws SQLException
     {
-        Connection cnn = null;
-        int count = 0;
-        while(cnn == null)
+        LOG.log(Level.FINE, String.format("Not connections availables in %s, waiting for a free one.", config.getName()));
+        metrics.waitStarted();
+        try
         {
-            try
+            long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+            while(System.currentTimeMillis() < deadline)
             {
-                wait(10 * 1000);
+                ConnectionImpl cnn;
+                try
+                {
+                    cnn = freeConnections.pollFirst(100, TimeUnit.MILLISECONDS);
+                }
+                catch (InterruptedException ex)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a connection with the database.", ex);
+                }
+                if(cnn == null)
+                {
+                    //a connection may have been retired by the maintenance task.
+                    cnn = getNewConnection();
+                }
+                if(cnn != null)
+                {
+                    return cnn;
+                }
+                if(closed)
+                {
+                    throw new SQLException("The DataSource is close.");
+                }
             }
-            catch (InterruptedException ex)
+        }
+        finally
+        {
+            metrics.waitFinished();
+        }
+        metrics.timeout();
+        LOG.log(Level.WARNING, "Not connections availables.");
+        throw new SQLException("Could not get a connection with the database.");
+    }
+
+    private boolean reserveConnection()
+    {
+        while(true)
+        {
+            int current = totalConnections.get();
+            if(current >= config.getMaxConnections())
             {
-                LOG.log(Level.SEVERE, ex.getMessage(), ex);
+                return false;
             }
-            cnn = getFreeConnection();
-            if(cnn == null)
+            if(totalConnections.compareAndSet(current, current + 1))
             {
-                LOG.log(Level.WARNING, "Not connections availables.");
-                count++;
-                if(count >= 3) throw  new SQLException("Could not get a connection with the database.");
+                return true;
             }
         }
-        return cnn;
     }
 
     @Override
@@ -186,6 +249,18 @@ class DataSourceImpl implements DataSource
         return false;
     }
 
+    private void loadDriver()
+    {
+        try
+        {
+            Class.forName(config.getDriver());
+        }
+        catch (ClassNotFoundException ex)
+        {
+            LOG.log(Level.SEVERE, String.format("The driver %s for %s could not be found.", config.getDriver(), config.getName()), ex);
+        }
+    }
+
     private ConnectionImpl createNewConnection() throws SQLException
     {
         LOG.log(Level.INFO, String.format("Creating new connection for %s.", config.getName()));
@@ -198,7 +273,7 @@ class DataSourceImpl implements DataSource
             throw new SQLException(ex.getMessage(), ex);
         }
         Connection internalConnection = DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword());
-        return new ConnectionImpl(internalConnection, this);
+        return new ConnectionImpl(internalConnection, this, config.getStatementCacheSize());
     }
 
     private Connection createNewConnection(String user, String password) throws SQLException
@@ -214,34 +289,81 @@ class DataSourceImpl implements DataSource
         return DriverManager.getConnection(config.getUrl(), user, password);
     }
 
-    protected synchronized void connectionClosed(ConnectionImpl closedConnection)
+    protected DataSourceMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    protected DataSourceConfig getConfig()
+    {
+        return config;
+    }
+
+    protected int getTotalConnections()
+    {
+        return totalConnections.get();
+    }
+
+    protected int getActiveConnections()
+    {
+        return usedConnections.size();
+    }
+
+    protected void connectionClosed(ConnectionImpl closedConnection)
     {
-        usedConnections.remove(closedConnection);
-        freeConnections.add(closedConnection);
-        LOG.log(Level.FINE, String.format("Current free connections in %s: %s", config.getName(), freeConnections.size() ));
-        notifyAll();
+        if(!usedConnections.remove(closedConnection))
+        {
+            return;
+        }
+        metrics.released(System.currentTimeMillis() - closedConnection.getLastUse());
+        if(closed || isExpired(closedConnection, System.currentTimeMillis()))
+        {
+            retireConnection(closedConnection);
+        }
+        else
+        {
+            freeConnections.offerFirst(closedConnection);
+        }
+        if(closed)
+        {
+            synchronized(this)
+            {
+                notifyAll();
+            }
+        }
     }
 
     protected synchronized void close() throws SQLException
     {
         closed = true;
-        while(!usedConnections.isEmpty())
+        stopMaintenance();
+        long deadline = System.currentTimeMillis() + config.getCloseTimeout() * 1000L;
+        long remaining;
+        while(!usedConnections.isEmpty() && (remaining = deadline - System.currentTimeMillis()) > 0)
         {
             try
             {
-                wait();
+                wait(remaining);
             }
             catch (InterruptedException e)
             {
-                LOG.log(Level.SEVERE, e.getMessage(), e);
+                //the connections still in use are closed right away.
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (ConnectionImpl cnn : usedConnections)
+        {
+            if(reclaimConnection(cnn))
+            {
+                LOG.log(Level.WARNING, String.format("Closing a connection of %s that was not returned before the datasource was closed.", config.getName()), cnn.getBorrowTrace());
             }
         }
-        for (ConnectionImpl freeConnection : freeConnections)
+        ConnectionImpl freeConnection;
+        while((freeConnection = freeConnections.pollFirst()) != null)
         {
-            freeConnection.realClose();
+            retireConnection(freeConnection);
         }
-        freeConnections.clear();
-        usedConnections.clear();
     }
     
     protected synchronized void reconnect(DataSourceConfig config)
@@ -251,6 +373,7 @@ class DataSourceImpl implements DataSource
             close();
             this.config = config;
             closed = false;
+            startMaintenance();
         }
         catch (SQLException e)
         {
@@ -258,46 +381,187 @@ class DataSourceImpl implements DataSource
         }
     }
 
-    private void checkIdleConnections()
+    private synchronized void startMaintenance()
     {
-        long idleTime = config.getIdleTime() * 1000;
-        if( (System.currentTimeMillis() - lastCheck) > idleTime )
+        //the driver is loaded in the calling thread, loading drivers from the
+        //maintenance threads at the same time may deadlock in DriverManager.
+        loadDriver();
+        String name = "bridje-jdbc-" + config.getName();
+        maintenance = Executors.newSingleThreadScheduledExecutor(r ->
         {
-            synchronized(this)
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::safeMaintain, 0, config.getMaintenanceTime(), TimeUnit.SECONDS);
+    }
+
+    private synchronized void stopMaintenance()
+    {
+        if(maintenance != null)
+        {
+            //the running maintenance is not interrupted, it ends when it sees
+            //the datasource closed.
+            maintenance.shutdown();
+            maintenance = null;
+        }
+    }
+
+    private void safeMaintain()
+    {
+        try
+        {
+            maintain();
+        }
+        catch (RuntimeException e)
+        {
+            //an exception would cancel the next runs.
+            LOG.log(Level.SEVERE, String.format("The maintenance of %s failed.", config.getName()), e);
+        }
+    }
+
+    /**
+     * Evicts the idle connections beyond the minimum, retires the connections
+     * older than the max lifetime, validates the connections that have not
+     * been used or validated since the reconnect time if the validation mode
+     * is BACKGROUND and creates new connections up to the minimum.
+     */
+    private void maintain()
+    {
+        if(closed)
+        {
+            return;
+        }
+        DataSourceConfig cfg = config;
+        long now = System.currentTimeMillis();
+        if(cfg.getLeakDetectionThreshold() > 0)
+        {
+            checkLeaks(cfg, now);
+        }
+        long idleTime = cfg.getIdleTime() * 1000;
+        int removed = 0;
+        for (ConnectionImpl cnn : freeConnections)
+        {
+            boolean expired = isExpired(cnn, now);
+            boolean idle = now - cnn.getLastUse() > idleTime && totalConnections.get() > cfg.getMinConnections();
+            boolean validate = cfg.getValidationMode() == ValidationMode.BACKGROUND && needToValidate(cnn, now);
+            //the connection is removed from the queue while it is checked so
+            //it cannot be borrowed, if it is not there it was just borrowed.
+            if((!expired && !idle && !validate) || !freeConnections.remove(cnn))
+            {
+                continue;
+            }
+            if(expired || idle)
+            {
+                retireConnection(cnn);
+                removed++;
+            }
+            else if(!cnn.validate(cfg.getValidationQuery(), cfg.getValidationTimeout()))
+            {
+                metrics.validationFailed();
+                retireConnection(cnn);
+                removed++;
+            }
+            else
+            {
+                freeConnections.offerLast(cnn);
+            }
+        }
+        if(removed > 0)
+        {
+            LOG.log(Level.FINE, String.format("Removing %s connections for %s.", removed, cfg.getName()));
+        }
+        while(!closed && totalConnections.get() < cfg.getMinConnections())
+        {
+            try
             {
-                lastCheck = System.currentTimeMillis();
-                List<ConnectionImpl> toRemove = new ArrayList<>();
-                for (ConnectionImpl freeConnection : freeConnections)
+                ConnectionImpl cnn = getNewConnection();
+                if(cnn == null)
                 {
-                    if( (System.currentTimeMillis() - freeConnection.getLastUse()) > idleTime )
-                    {
-                        try
-                        {
-                            int totalConnections = freeConnections.size() + usedConnections.size();
-                            if(totalConnections - toRemove.size() <= config.getMinConnections())
-                            {
-                                break;
-                            }
-                            freeConnection.realClose();
-                            toRemove.add(freeConnection);
-                        }
-                        catch (SQLException ex)
-                        {
-                            LOG.log(Level.SEVERE, ex.getMessage(), ex);
-                        }
-                    }
+                    break;
                 }
-                LOG.log(Level.FINE, String.format("Removing %s connections for %s.", toRemove.size(), config.getName()) );
-                freeConnections.removeAll(toRemove);
-                LOG.log(Level.FINE, String.format("Current total connections in %s: %s", config.getName(), freeConnections.size() + usedConnections.size()));
+                freeConnections.offerLast(cnn);
+            }
+            catch (SQLException e)
+            {
+                LOG.log(Level.WARNING, String.format("Could not create the minimum connections for %s: %s", cfg.getName(), e.getMessage()));
+                break;
+            }
+        }
+        LOG.log(Level.FINE, String.format("Current total connections in %s: %s, free %s", cfg.getName(), totalConnections.get(), freeConnections.size()));
+        if(cfg.getStatementCacheSize() > 0)
+        {
+            LOG.log(Level.FINE, String.format("Statements cache of %s, hits: %s, misses: %s", cfg.getName(), metrics.getStatementCacheHits(), metrics.getStatementCacheMisses()));
+        }
+    }
+
+    /**
+     * Reports the connections borrowed for longer than the leak detection
+     * threshold, with the stack trace of the thread that borrowed them, and
+     * reclaims them if the configuration says so.
+     */
+    private void checkLeaks(DataSourceConfig cfg, long now)
+    {
+        long threshold = cfg.getLeakDetectionThreshold() * 1000;
+        for (ConnectionImpl cnn : usedConnections)
+        {
+            long usedTime = now - cnn.getLastUse();
+            if(usedTime <= threshold)
+            {
+                continue;
+            }
+            if(cnn.reportLeak())
+            {
+                metrics.leakDetected();
+                LOG.log(Level.WARNING, String.format("Possible connection leak in %s, the connection has been borrowed for %s ms.", cfg.getName(), usedTime), cnn.getBorrowTrace());
+            }
+            //the connection is closed instead of returned to the pool, it
+            //may be in the middle of a transaction.
+            if(cfg.isReclaimLeakedConnections() && reclaimConnection(cnn))
+            {
+                LOG.log(Level.WARNING, String.format("Reclaimed the leaked connection in %s.", cfg.getName()));
             }
         }
     }
 
-    private boolean needToReconnect(ConnectionImpl connection) throws SQLException
+    /**
+     * Takes a borrowed connection from its borrower and closes it, the
+     * borrower gets an error if it uses the connection again.
+     *
+     * @return false if the connection was returned in the meantime.
+     */
+    private boolean reclaimConnection(ConnectionImpl cnn)
+    {
+        if(!usedConnections.remove(cnn))
+        {
+            return false;
+        }
+        cnn.reclaim();
+        retireConnection(cnn);
+        return true;
+    }
+
+    private boolean needToValidate(ConnectionImpl connection, long now)
+    {
+        return now - connection.getLastCheck() > config.getReconnectTime() * 1000L;
+    }
+
+    private boolean isExpired(ConnectionImpl connection, long now)
     {
-        long reTime = config.getReconnectTime() * 1000;
-        long timePass = System.currentTimeMillis() - connection.getLastUse();
-        return reTime < timePass || connection.isClosed();
+        return now - connection.getCreateTime() > config.getMaxLifetime() * 1000;
+    }
+
+    private void retireConnection(ConnectionImpl connection)
+    {
+        totalConnections.decrementAndGet();
+        metrics.connectionClosed();
+        try
+        {
+            connection.realClose();
+        }
+        catch (SQLException ex)
+        {
+            LOG.log(Level.SEVERE, ex.getMessage(), ex);
+        }
     }
 }
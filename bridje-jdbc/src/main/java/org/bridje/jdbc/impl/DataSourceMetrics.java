@@ -0,0 +1,232 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.jdbc.impl;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.bridje.jdbc.DataSourceMetricsMXBean;
+
+/**
+ * The metrics of a DataSourceImpl. All the counters are updated and read
+ * without locks so the metrics do not add contention to the pool.
+ */
+class DataSourceMetrics implements DataSourceMetricsMXBean
+{
+    private final DataSourceImpl dataSource;
+
+    private final AtomicInteger pendingThreads = new AtomicInteger();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private final LongAdder createdConnections = new LongAdder();
+
+    private final LongAdder closedConnections = new LongAdder();
+
+    private final LongAdder validationFailures = new LongAdder();
+
+    private final LongAdder leakedConnections = new LongAdder();
+
+    private final LongAdder statementCacheHits = new LongAdder();
+
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    private final Histogram borrowTime = new Histogram();
+
+    private final Histogram usageTime = new Histogram();
+
+    public DataSourceMetrics(DataSourceImpl dataSource)
+    {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public String getName()
+    {
+        return dataSource.getConfig().getName();
+    }
+
+    @Override
+    public int getMaxConnections()
+    {
+        return dataSource.getConfig().getMaxConnections();
+    }
+
+    @Override
+    public int getTotalConnections()
+    {
+        return dataSource.getTotalConnections();
+    }
+
+    @Override
+    public int getActiveConnections()
+    {
+        return dataSource.getActiveConnections();
+    }
+
+    @Override
+    public int getIdleConnections()
+    {
+        return Math.max(0, getTotalConnections() - getActiveConnections());
+    }
+
+    @Override
+    public int getPendingThreads()
+    {
+        return pendingThreads.get();
+    }
+
+    @Override
+    public long getTimeouts()
+    {
+        return timeouts.sum();
+    }
+
+    @Override
+    public long getCreatedConnections()
+    {
+        return createdConnections.sum();
+    }
+
+    @Override
+    public long getClosedConnections()
+    {
+        return closedConnections.sum();
+    }
+
+    @Override
+    public long getValidationFailures()
+    {
+        return validationFailures.sum();
+    }
+
+    @Override
+    public long getLeakedConnections()
+    {
+        return leakedConnections.sum();
+    }
+
+    @Override
+    public long getStatementCacheHits()
+    {
+        return statementCacheHits.sum();
+    }
+
+    @Override
+    public long getStatementCacheMisses()
+    {
+        return statementCacheMisses.sum();
+    }
+
+    @Override
+    public Map<String, Long> getBorrowTimeHistogram()
+    {
+        return borrowTime.getBuckets();
+    }
+
+    @Override
+    public double getBorrowTimeAverage()
+    {
+        return borrowTime.getAverage();
+    }
+
+    @Override
+    public long getBorrowTimeMax()
+    {
+        return borrowTime.getMax();
+    }
+
+    @Override
+    public Map<String, Long> getUsageTimeHistogram()
+    {
+        return usageTime.getBuckets();
+    }
+
+    @Override
+    public double getUsageTimeAverage()
+    {
+        return usageTime.getAverage();
+    }
+
+    @Override
+    public long getUsageTimeMax()
+    {
+        return usageTime.getMax();
+    }
+
+    protected void waitStarted()
+    {
+        pendingThreads.incrementAndGet();
+    }
+
+    protected void waitFinished()
+    {
+        pendingThreads.decrementAndGet();
+    }
+
+    protected void timeout()
+    {
+        timeouts.increment();
+    }
+
+    protected void connectionCreated()
+    {
+        createdConnections.increment();
+    }
+
+    protected void connectionClosed()
+    {
+        closedConnections.increment();
+    }
+
+    protected void validationFailed()
+    {
+        validationFailures.increment();
+    }
+
+    @Override
+    public void resetHistograms()
+    {
+        borrowTime.reset();
+        usageTime.reset();
+    }
+
+    protected void leakDetected()
+    {
+        leakedConnections.increment();
+    }
+
+    protected void statementCacheHit()
+    {
+        statementCacheHits.increment();
+    }
+
+    protected void statementCacheMiss()
+    {
+        statementCacheMisses.increment();
+    }
+
+    protected void borrowed(long millis)
+    {
+        borrowTime.record(millis);
+    }
+
+    protected void released(long millis)
+    {
+        usageTime.record(millis);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.jdbc.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of times in milliseconds, with fixed buckets from 1ms
+ * to 30s.
+ */
+class Histogram
+{
+    private static final long[] BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Adds a sample to the histogram.
+     *
+     * @param millis The time in milliseconds.
+     */
+    public void record(long millis)
+    {
+        int index = 0;
+        while (index < BOUNDS.length && millis > BOUNDS[index])
+        {
+            index++;
+        }
+        buckets.incrementAndGet(index);
+        count.increment();
+        sum.add(millis);
+        if (millis > max.get())
+        {
+            max.accumulateAndGet(millis, Math::max);
+        }
+    }
+
+    /**
+     * The number of samples in each bucket, by the upper bound of the bucket.
+     *
+     * @return The buckets of the histogram.
+     */
+    public Map<String, Long> getBuckets()
+    {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < BOUNDS.length; i++)
+        {
+            result.put("<=" + BOUNDS[i] + "ms", buckets.get(i));
+        }
+        result.put(">" + BOUNDS[BOUNDS.length - 1] + "ms", buckets.get(BOUNDS.length));
+        return result;
+    }
+
+    /**
+     * Removes all the samples. The samples recorded while the histogram is
+     * reset may be partially removed.
+     */
+    public void reset()
+    {
+        for (int i = 0; i < buckets.length(); i++)
+        {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    public double getAverage()
+    {
+        long c = count.sum();
+        return c == 0 ? 0 : (double)sum.sum() / c;
+    }
+
+    public long getMax()
+    {
+        return max.get();
+    }
+}
@@ -18,15 +18,21 @@ package org.bridje.jdbc.impl;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.sql.SQLException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 import javax.sql.DataSource;
 import javax.xml.bind.JAXBException;
 import org.bridje.ioc.Component;
 import org.bridje.ioc.PostConstruct;
+import org.bridje.jdbc.DataSourceMetricsMXBean;
 import org.bridje.jdbc.JdbcService;
 import org.bridje.jdbc.config.DataSourceConfig;
 import org.bridje.jdbc.config.JdbcConfig;
@@ -44,6 +50,12 @@ class JdbcServiceImpl implements JdbcService
 
     private JdbcConfig config;
 
+    /**
+     * The names of the metrics MBeans registered for the pools, the name of a
+     * pool can change when it is reconnected.
+     */
+    private final Map<DataSourceImpl, ObjectName> metricsNames = new ConcurrentHashMap<>();
+
     @PostConstruct
     public void init()
     {
@@ -54,6 +66,7 @@ class JdbcServiceImpl implements JdbcService
             config = loadDefConfig();
             config.getDataSources().forEach(cfg -> dsMap.put(cfg.getName(), new DataSourceImpl(cfg)) );
             config.getSchemas().forEach(cfg -> schemaMap.put(cfg.getName(), dsMap.get(cfg.getDataSource())));
+            dsMap.values().forEach(this::registerMetrics);
         }
         catch (IOException e)
         {
@@ -80,7 +93,9 @@ class JdbcServiceImpl implements JdbcService
     @Override
     public DataSource createDataSource(DataSourceConfig config)
     {
-        return new DataSourceImpl(config);
+        DataSourceImpl result = new DataSourceImpl(config);
+        registerMetrics(result);
+        return result;
     }
 
     @Override
@@ -88,6 +103,7 @@ class JdbcServiceImpl implements JdbcService
     {
         if(dataSource instanceof DataSourceImpl)
         {
+            unregisterMetrics((DataSourceImpl) dataSource);
             ((DataSourceImpl) dataSource).close();
         }
         else
@@ -104,6 +120,7 @@ class JdbcServiceImpl implements JdbcService
             try
             {
                 DataSourceImpl dataSource = entry.getValue();
+                unregisterMetrics(dataSource);
                 dataSource.close();
             }
             catch (SQLException ex)
@@ -136,6 +153,54 @@ class JdbcServiceImpl implements JdbcService
     public void reconnectAll(JdbcConfig config)
     {
         if(config != null) this.config = config;
-        this.config.getDataSources().forEach(cfg -> dsMap.get(cfg.getName()).reconnect(cfg) );
+        this.config.getDataSources().forEach(cfg ->
+        {
+            DataSourceImpl dataSource = dsMap.get(cfg.getName());
+            unregisterMetrics(dataSource);
+            dataSource.reconnect(cfg);
+            registerMetrics(dataSource);
+        });
+    }
+
+    private void registerMetrics(DataSourceImpl dataSource)
+    {
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = metricsName(dataSource);
+            if(server.isRegistered(name))
+            {
+                LOG.log(Level.WARNING, String.format("The metrics of %s are not registered, there is other DataSource with the same name.", dataSource.getConfig().getName()));
+                return;
+            }
+            server.registerMBean(new StandardMBean(dataSource.getMetrics(), DataSourceMetricsMXBean.class, true), name);
+            metricsNames.put(dataSource, name);
+        }
+        catch (JMException e)
+        {
+            LOG.log(Level.WARNING, String.format("Could not register the metrics of %s.", dataSource.getConfig().getName()), e);
+        }
+    }
+
+    private void unregisterMetrics(DataSourceImpl dataSource)
+    {
+        try
+        {
+            ObjectName name = metricsNames.remove(dataSource);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if(name != null && server.isRegistered(name))
+            {
+                server.unregisterMBean(name);
+            }
+        }
+        catch (JMException e)
+        {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+    }
+
+    private ObjectName metricsName(DataSourceImpl dataSource) throws JMException
+    {
+        return new ObjectName("org.bridje.jdbc:type=DataSource,name=" + ObjectName.quote(dataSource.getConfig().getName()));
     }
 }
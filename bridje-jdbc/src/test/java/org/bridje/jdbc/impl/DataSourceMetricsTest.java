@@ -0,0 +1,65 @@
+package org.bridje.jdbc.impl;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+import org.bridje.jdbc.DataSourceMetricsMXBean;
+import org.bridje.jdbc.config.DataSourceConfig;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class DataSourceMetricsTest
+{
+    @Test
+    public void testCreatedDataSourceMetrics() throws Exception
+    {
+        DataSourceConfig config = new DataSourceConfig();
+        config.setName("MetricsTest");
+        config.setDriver("org.h2.Driver");
+        config.setUrl("jdbc:h2:mem:metrics;DB_CLOSE_DELAY=-1");
+        config.setUser("sa");
+        config.setPassword("");
+        config.setMaxConnections(1);
+        config.setMinConnections(1);
+        config.setStatementCacheSize(4);
+
+        JdbcServiceImpl service = new JdbcServiceImpl();
+        DataSource dataSource = service.createDataSource(config);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.bridje.jdbc:type=DataSource,name=" + ObjectName.quote("MetricsTest"));
+        assertTrue(server.isRegistered(name));
+        DataSourceMetricsMXBean metrics = JMX.newMXBeanProxy(server, name, DataSourceMetricsMXBean.class);
+        assertEquals("MetricsTest", metrics.getName());
+        assertEquals(1, metrics.getMaxConnections());
+
+        for (int i = 0; i < 3; i++)
+        {
+            try (Connection connection = dataSource.getConnection();
+                    PreparedStatement stmt = connection.prepareStatement("SELECT 1"))
+            {
+                stmt.executeQuery().close();
+                assertEquals(1, metrics.getActiveConnections());
+            }
+        }
+        assertEquals(0, metrics.getActiveConnections());
+        assertEquals(1, metrics.getCreatedConnections());
+        assertEquals(1, metrics.getStatementCacheMisses());
+        assertEquals(2, metrics.getStatementCacheHits());
+        assertEquals(3L, (long) metrics.getBorrowTimeHistogram().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(3L, (long) metrics.getUsageTimeHistogram().values().stream().mapToLong(Long::longValue).sum());
+
+        metrics.resetHistograms();
+        assertEquals(0L, (long) metrics.getBorrowTimeHistogram().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(0L, (long) metrics.getUsageTimeHistogram().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(0, metrics.getBorrowTimeMax());
+        //the counters are not reset.
+        assertEquals(2, metrics.getStatementCacheHits());
+
+        service.closeDataSource(dataSource);
+        assertFalse(server.isRegistered(name));
+    }
+}
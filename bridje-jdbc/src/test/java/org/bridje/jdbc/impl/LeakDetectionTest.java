@@ -0,0 +1,184 @@
+package org.bridje.jdbc.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import org.bridje.jdbc.config.DataSourceConfig;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LeakDetectionTest
+{
+    private final List<LogRecord> reports = new CopyOnWriteArrayList<>();
+
+    private final Handler handler = new Handler()
+    {
+        @Override
+        public void publish(LogRecord record)
+        {
+            if(record.getMessage().startsWith("Possible connection leak"))
+            {
+                reports.add(record);
+            }
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    };
+
+    @Before
+    public void before()
+    {
+        Logger.getLogger(DataSourceImpl.class.getName()).addHandler(handler);
+    }
+
+    @After
+    public void after()
+    {
+        Logger.getLogger(DataSourceImpl.class.getName()).removeHandler(handler);
+    }
+
+    @Test(timeout = 20000)
+    public void testReportedOnce() throws Exception
+    {
+        DataSourceImpl dataSource = new DataSourceImpl(createConfig("LeakReportTest", false));
+        Connection connection = dataSource.getConnection();
+        waitReports(1);
+        //the next runs of the maintenance do not report it again.
+        Thread.sleep(2500);
+        assertEquals(1, reports.size());
+        assertEquals(1, dataSource.getMetrics().getLeakedConnections());
+
+        Throwable trace = reports.get(0).getThrown();
+        assertNotNull(trace);
+        assertEquals("The connection was borrowed here.", trace.getMessage());
+        assertTrue(borrowedIn(trace, "testReportedOnce"));
+
+        //without reclaim the borrower can still use it.
+        try (Statement stmt = connection.createStatement())
+        {
+            stmt.execute("SELECT 1");
+        }
+        connection.close();
+        dataSource.close();
+    }
+
+    @Test(timeout = 20000)
+    public void testReclaim() throws Exception
+    {
+        DataSourceImpl dataSource = new DataSourceImpl(createConfig("LeakReclaimTest", true));
+        Connection leaked = dataSource.getConnection();
+        waitReports(1);
+        while(dataSource.getActiveConnections() > 0)
+        {
+            Thread.sleep(100);
+        }
+        assertTrue(leaked.isClosed());
+        try
+        {
+            leaked.createStatement();
+            fail("The reclaimed connection can still be used.");
+        }
+        catch (SQLException e)
+        {
+        }
+
+        //the slot of the only connection of the pool is free again.
+        long start = System.currentTimeMillis();
+        try (Connection connection = dataSource.getConnection(); Statement stmt = connection.createStatement())
+        {
+            stmt.execute("SELECT 1");
+        }
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertEquals(1, reports.size());
+        leaked.close();
+        dataSource.close();
+    }
+
+    @Test(timeout = 20000)
+    public void testCloseTimeout() throws Exception
+    {
+        DataSourceConfig config = createConfig("LeakCloseTest", false);
+        config.setCloseTimeout(1);
+        DataSourceImpl dataSource = new DataSourceImpl(config);
+        Connection leaked = dataSource.getConnection();
+
+        //the datasource waits for the connection, then closes it.
+        long start = System.currentTimeMillis();
+        dataSource.close();
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue(elapsed >= 900);
+        assertTrue(elapsed < 5000);
+        assertTrue(leaked.isClosed());
+        assertEquals(0, dataSource.getActiveConnections());
+        assertEquals(0, dataSource.getTotalConnections());
+        leaked.close();
+    }
+
+    @Test(timeout = 20000)
+    public void testCloseInterrupted() throws Exception
+    {
+        DataSourceImpl dataSource = new DataSourceImpl(createConfig("LeakInterruptTest", false));
+        Connection leaked = dataSource.getConnection();
+
+        //the default timeout is not waited if the thread is interrupted.
+        Thread.currentThread().interrupt();
+        long start = System.currentTimeMillis();
+        dataSource.close();
+        assertTrue(Thread.interrupted());
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertTrue(leaked.isClosed());
+        assertEquals(0, dataSource.getTotalConnections());
+        leaked.close();
+    }
+
+    private void waitReports(int count) throws InterruptedException
+    {
+        while(reports.size() < count)
+        {
+            Thread.sleep(100);
+        }
+    }
+
+    private boolean borrowedIn(Throwable trace, String method)
+    {
+        for (StackTraceElement element : trace.getStackTrace())
+        {
+            if(element.getMethodName().equals(method))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private DataSourceConfig createConfig(String name, boolean reclaim)
+    {
+        DataSourceConfig config = new DataSourceConfig();
+        config.setName(name);
+        config.setDriver("org.h2.Driver");
+        config.setUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        config.setUser("sa");
+        config.setPassword("");
+        config.setMaxConnections(1);
+        config.setMinConnections(1);
+        config.setMaintenanceTime(1);
+        config.setLeakDetectionThreshold(1);
+        config.setReclaimLeakedConnections(reclaim);
+        return config;
+    }
+}
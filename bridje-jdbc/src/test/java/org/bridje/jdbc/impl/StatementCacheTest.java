@@ -0,0 +1,182 @@
+package org.bridje.jdbc.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.bridje.jdbc.config.DataSourceConfig;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StatementCacheTest
+{
+    private DataSourceImpl dataSource;
+
+    private Connection connection;
+
+    @Before
+    public void before() throws SQLException
+    {
+        DataSourceConfig config = new DataSourceConfig();
+        config.setName("StatementCacheTest");
+        config.setDriver("org.h2.Driver");
+        config.setUrl("jdbc:h2:mem:statementCache;DB_CLOSE_DELAY=-1");
+        config.setUser("sa");
+        config.setPassword("");
+        config.setMaxConnections(1);
+        config.setMinConnections(1);
+        config.setStatementCacheSize(2);
+        dataSource = new DataSourceImpl(config);
+        connection = dataSource.getConnection();
+        try (Statement stmt = connection.createStatement())
+        {
+            stmt.execute("CREATE TABLE IF NOT EXISTS items (id INTEGER AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50))");
+        }
+    }
+
+    @After
+    public void after() throws SQLException
+    {
+        connection.close();
+        dataSource.close();
+    }
+
+    @Test
+    public void testHit() throws SQLException
+    {
+        PreparedStatement first = connection.prepareStatement("SELECT id FROM items");
+        PreparedStatement real = first.unwrap(PreparedStatement.class);
+        first.close();
+        assertTrue(first.isClosed());
+        assertFalse(real.isClosed());
+
+        PreparedStatement second = connection.prepareStatement("SELECT id FROM items");
+        assertNotSame(first, second);
+        assertSame(real, second.unwrap(PreparedStatement.class));
+        second.close();
+        assertEquals(1, dataSource.getMetrics().getStatementCacheHits());
+        assertEquals(1, dataSource.getMetrics().getStatementCacheMisses());
+    }
+
+    @Test
+    public void testDifferentKey() throws SQLException
+    {
+        PreparedStatement first = connection.prepareStatement("SELECT id FROM items");
+        PreparedStatement real = first.unwrap(PreparedStatement.class);
+        first.close();
+
+        PreparedStatement other = connection.prepareStatement("SELECT id FROM items", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        assertNotSame(real, other.unwrap(PreparedStatement.class));
+        other.close();
+        PreparedStatement keys = connection.prepareStatement("SELECT id FROM items", Statement.RETURN_GENERATED_KEYS);
+        assertNotSame(real, keys.unwrap(PreparedStatement.class));
+        keys.close();
+        PreparedStatement text = connection.prepareStatement("SELECT name FROM items");
+        assertNotSame(real, text.unwrap(PreparedStatement.class));
+        text.close();
+        assertEquals(0, dataSource.getMetrics().getStatementCacheHits());
+    }
+
+    @Test
+    public void testResetOnClose() throws SQLException
+    {
+        PreparedStatement first = connection.prepareStatement("INSERT INTO items (name) VALUES (?)");
+        PreparedStatement real = first.unwrap(PreparedStatement.class);
+        first.setQueryTimeout(5);
+        first.setString(1, "batched");
+        first.addBatch();
+        first.setString(1, "pending");
+        first.close();
+
+        PreparedStatement second = connection.prepareStatement("INSERT INTO items (name) VALUES (?)");
+        assertSame(real, second.unwrap(PreparedStatement.class));
+        assertEquals(0, second.getQueryTimeout());
+        assertEquals(0, second.executeBatch().length);
+        try
+        {
+            second.executeUpdate();
+            fail("The parameters of the previous use were not cleared.");
+        }
+        catch (SQLException e)
+        {
+        }
+        second.close();
+    }
+
+    @Test
+    public void testModifiedNotCached() throws SQLException
+    {
+        PreparedStatement first = connection.prepareStatement("SELECT id FROM items");
+        PreparedStatement real = first.unwrap(PreparedStatement.class);
+        first.setMaxRows(1);
+        first.close();
+        assertTrue(real.isClosed());
+
+        PreparedStatement second = connection.prepareStatement("SELECT id FROM items");
+        assertNotSame(real, second.unwrap(PreparedStatement.class));
+        assertEquals(0, second.getMaxRows());
+        second.close();
+        assertEquals(0, dataSource.getMetrics().getStatementCacheHits());
+    }
+
+    @Test
+    public void testEviction() throws SQLException
+    {
+        PreparedStatement[] reals = new PreparedStatement[3];
+        for (int i = 0; i < reals.length; i++)
+        {
+            PreparedStatement stmt = connection.prepareStatement("SELECT id FROM items WHERE id > " + i);
+            reals[i] = stmt.unwrap(PreparedStatement.class);
+            stmt.close();
+        }
+        //the cache holds two statements, the least recently used is closed.
+        assertTrue(reals[0].isClosed());
+        assertFalse(reals[1].isClosed());
+        assertFalse(reals[2].isClosed());
+
+        PreparedStatement stmt = connection.prepareStatement("SELECT id FROM items WHERE id > 1");
+        assertSame(reals[1], stmt.unwrap(PreparedStatement.class));
+        stmt.close();
+    }
+
+    @Test
+    public void testRealClose() throws SQLException
+    {
+        PreparedStatement stmt = connection.prepareStatement("SELECT id FROM items");
+        PreparedStatement real = stmt.unwrap(PreparedStatement.class);
+        stmt.close();
+        ((ConnectionImpl) connection).realClose();
+        assertTrue(real.isClosed());
+    }
+
+    @Test
+    public void testResultSetStatement() throws SQLException
+    {
+        PreparedStatement query = connection.prepareStatement("SELECT id FROM items");
+        try (ResultSet rs = query.executeQuery())
+        {
+            assertSame(query, rs.getStatement());
+        }
+        query.execute();
+        assertSame(query, query.getResultSet().getStatement());
+        query.close();
+
+        PreparedStatement insert = connection.prepareStatement("INSERT INTO items (name) VALUES (?)", Statement.RETURN_GENERATED_KEYS);
+        insert.setString(1, "key");
+        insert.executeUpdate();
+        try (ResultSet keys = insert.getGeneratedKeys())
+        {
+            assertTrue(keys.next());
+            assertSame(insert, keys.getStatement());
+        }
+        //closing the statement of the result set returns it to the cache.
+        insert.getGeneratedKeys().getStatement().close();
+        assertTrue(insert.isClosed());
+        PreparedStatement again = connection.prepareStatement("INSERT INTO items (name) VALUES (?)", Statement.RETURN_GENERATED_KEYS);
+        again.close();
+        assertEquals(1, dataSource.getMetrics().getStatementCacheHits());
+    }
+}
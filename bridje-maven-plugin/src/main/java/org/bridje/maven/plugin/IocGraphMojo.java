@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 Bridje Framework.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.bridje.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * This MOJO resolves the IoC components of all the scopes of the project at
+ * build time and checks their dependencies. The dependencies that no component
+ * provides are reported as errors, and the ones provided by more than one
+ * component with the same priority as warnings.
+ * <p>
+ * The graph is resolved with the bridje-ioc version of the project, loaded in
+ * its own class loader with the classes and dependencies of the project.
+ */
+@Mojo(name = "ioc-graph",
+        defaultPhase = LifecyclePhase.PROCESS_CLASSES,
+        requiresDependencyResolution = ResolutionScope.COMPILE)
+public class IocGraphMojo extends AbstractMojo
+{
+    private static final String GRAPH_CLASS = "org.bridje.ioc.impl.ComponentGraph";
+
+    @Parameter(defaultValue = "${project.build.outputDirectory}", readonly = true)
+    private File outputDirectory;
+
+    @Parameter(defaultValue = "true", readonly = false)
+    private boolean failOnError;
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException
+    {
+        getLog().info("Checking IoC Components Graph");
+        if (!outputDirectory.exists())
+        {
+            return;
+        }
+        List<String> errors = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        ClassLoader oldLoader = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader loader = createClassLoader())
+        {
+            Thread.currentThread().setContextClassLoader(loader);
+            Class<?> graphCls = Class.forName(GRAPH_CLASS, true, loader);
+            Method validate = graphCls.getMethod("validate", List.class, List.class);
+            validate.invoke(null, errors, warnings);
+        }
+        catch (ClassNotFoundException | NoSuchMethodException e)
+        {
+            getLog().warn("The bridje-ioc version of the project does not support the components graph.");
+            return;
+        }
+        catch (InvocationTargetException e)
+        {
+            throw new MojoExecutionException(e.getCause().getMessage(), e.getCause());
+        }
+        catch (ReflectiveOperationException | IOException e)
+        {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+        finally
+        {
+            Thread.currentThread().setContextClassLoader(oldLoader);
+        }
+        warnings.forEach(getLog()::warn);
+        errors.forEach(getLog()::error);
+        if (failOnError && !errors.isEmpty())
+        {
+            throw new MojoFailureException(String.format("%d unsatisfied IoC dependencies found.", errors.size()));
+        }
+    }
+
+    /**
+     * Creates a ClassLoader with the classes and the compile dependencies of
+     * the project, isolated from the classes of the plugin.
+     *
+     * @return The classloader created.
+     *
+     * @throws MojoFailureException If the creation fails.
+     */
+    private URLClassLoader createClassLoader() throws MojoFailureException
+    {
+        try
+        {
+            List<URL> urls = new ArrayList<>();
+            for (String element : project.getCompileClasspathElements())
+            {
+                urls.add(new File(element).toURI().toURL());
+            }
+            return new URLClassLoader(urls.toArray(new URL[0]), ClassLoader.getSystemClassLoader().getParent());
+        }
+        catch (DependencyResolutionRequiredException | MalformedURLException e)
+        {
+            throw new MojoFailureException(e.getMessage(), e);
+        }
+    }
+}
@@ -19,12 +19,16 @@ package org.bridje.sql.impl;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.sql.DataSource;
+import org.bridje.ioc.thls.Deadline;
+import org.bridje.ioc.thls.Thls;
 import org.bridje.sql.*;
 
 abstract class EnvironmentBase implements SQLEnvironment
@@ -78,7 +82,7 @@ abstract class EnvironmentBase implements SQLEnvironment
         if(LOG.isLoggable(Level.FINE)) LOG.log(Level.FINE, sqlStmt.getSQL());
         try(PreparedStatement stmt = prepareStatement(cnn, sqlStmt))
         {
-            return stmt.executeUpdate();
+            return executeUpdate(stmt);
         }
     }
 
@@ -90,15 +94,7 @@ abstract class EnvironmentBase implements SQLEnvironment
         {
             try(PreparedStatement stmt = prepareStatement(cnn, sqlStmt))
             {
-                if(sqlStmt.isWithGeneratedKeys())
-                {
-                    stmt.executeUpdate();
-                    rs = new SQLResultSetImpl(stmt.getGeneratedKeys(), sqlStmt.getResultFields());
-                }
-                else
-                {
-                    rs = new SQLResultSetImpl(stmt.executeQuery(), sqlStmt.getResultFields());
-                }
+                rs = executeQuery(stmt, sqlStmt);
             }
         }
         return fetchAll(rs, parser);
@@ -112,15 +108,7 @@ abstract class EnvironmentBase implements SQLEnvironment
         {
             try(PreparedStatement stmt = prepareStatement(cnn, sqlStmt))
             {
-                if(sqlStmt.isWithGeneratedKeys())
-                {
-                    stmt.executeUpdate();
-                    rs = new SQLResultSetImpl(stmt.getGeneratedKeys(), sqlStmt.getResultFields());
-                }
-                else
-                {
-                    rs = new SQLResultSetImpl(stmt.executeQuery(), sqlStmt.getResultFields());
-                }
+                rs = executeQuery(stmt, sqlStmt);
             }
         }
         return fetchOne(rs, parser);
@@ -133,7 +121,7 @@ abstract class EnvironmentBase implements SQLEnvironment
         {
             try(PreparedStatement stmt = prepareStatement(cnn, sqlStmt))
             {
-                return stmt.executeUpdate();
+                return executeUpdate(stmt);
             }
         }
     }
@@ -144,15 +132,7 @@ abstract class EnvironmentBase implements SQLEnvironment
         SQLResultSet rs;
         try(PreparedStatement stmt = prepareStatement(cnn, sqlStmt))
         {
-            if(sqlStmt.isWithGeneratedKeys())
-            {
-                stmt.executeUpdate();
-                rs = new SQLResultSetImpl(stmt.getGeneratedKeys(), sqlStmt.getResultFields());
-            }
-            else
-            {
-                rs = new SQLResultSetImpl(stmt.executeQuery(), sqlStmt.getResultFields());
-            }
+            rs = executeQuery(stmt, sqlStmt);
         }
         return fetchAll(rs, parser);
     }
@@ -163,15 +143,7 @@ abstract class EnvironmentBase implements SQLEnvironment
         SQLResultSet rs;
         try(PreparedStatement stmt = prepareStatement(cnn, sqlStmt))
         {
-            if(sqlStmt.isWithGeneratedKeys())
-            {
-                stmt.executeUpdate();
-                rs = new SQLResultSetImpl(stmt.getGeneratedKeys(), sqlStmt.getResultFields());
-            }
-            else
-            {
-                rs = new SQLResultSetImpl(stmt.executeQuery(), sqlStmt.getResultFields());
-            }
+            rs = executeQuery(stmt, sqlStmt);
         }
         return fetchOne(rs, parser);
     }
@@ -193,9 +165,86 @@ abstract class EnvironmentBase implements SQLEnvironment
         {
             stmt.setObject(i+1, params[i]);
         }
+        applyDeadline(stmt);
         return stmt;
     }
 
+    private int executeUpdate(PreparedStatement stmt) throws SQLException
+    {
+        Deadline deadline = Thls.get(Deadline.class);
+        Runnable cancel = cancelAction(stmt, deadline);
+        try
+        {
+            return stmt.executeUpdate();
+        }
+        finally
+        {
+            if(cancel != null) deadline.removeOnCancel(cancel);
+        }
+    }
+
+    private SQLResultSet executeQuery(PreparedStatement stmt, SQLStatement sqlStmt) throws SQLException
+    {
+        Deadline deadline = Thls.get(Deadline.class);
+        Runnable cancel = cancelAction(stmt, deadline);
+        try
+        {
+            if(sqlStmt.isWithGeneratedKeys())
+            {
+                stmt.executeUpdate();
+                return new SQLResultSetImpl(stmt.getGeneratedKeys(), sqlStmt.getResultFields());
+            }
+            return new SQLResultSetImpl(stmt.executeQuery(), sqlStmt.getResultFields());
+        }
+        finally
+        {
+            if(cancel != null) deadline.removeOnCancel(cancel);
+        }
+    }
+
+    /**
+     * Limits the query timeout of the statement to the time left in the
+     * deadline of the current thread if any.
+     */
+    private void applyDeadline(PreparedStatement stmt) throws SQLException
+    {
+        Deadline deadline = Thls.get(Deadline.class);
+        if(deadline == null) return;
+        long remaining = deadline.remaining(TimeUnit.MILLISECONDS);
+        if(remaining <= 0)
+        {
+            stmt.close();
+            throw new SQLTimeoutException("The deadline for the current operation has expired.");
+        }
+        int seconds = (int)Math.max(1, (remaining + 999) / 1000);
+        if(stmt.getQueryTimeout() == 0 || stmt.getQueryTimeout() > seconds)
+        {
+            stmt.setQueryTimeout(seconds);
+        }
+    }
+
+    /**
+     * Registers an action to cancel the statement when the deadline of the
+     * current thread is cancelled.
+     */
+    private Runnable cancelAction(PreparedStatement stmt, Deadline deadline)
+    {
+        if(deadline == null) return null;
+        Runnable cancel = () ->
+        {
+            try
+            {
+                stmt.cancel();
+            }
+            catch (SQLException e)
+            {
+                LOG.log(Level.WARNING, e.getMessage(), e);
+            }
+        };
+        deadline.onCancel(cancel);
+        return cancel;
+    }
+
     private <T> T fetchOne(SQLResultSet rs, SQLResultParser<T> parser) throws SQLException
     {
         if(rs.next()) return parser.parse(rs);